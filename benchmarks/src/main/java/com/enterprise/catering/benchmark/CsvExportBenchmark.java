@@ -0,0 +1,87 @@
+package com.enterprise.catering.benchmark;
+
+import com.enterprise.catering.controller.DownloadController;
+import com.enterprise.catering.model.BlanketOrder;
+import org.h2.tools.SimpleResultSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DownloadController 的 CSV 生成：总括订单（一次性拼接字符串）与每日订单（逐行流式写出）。
+ * 两者都是控制器的私有实现，在 @Setup 中通过反射取得，每次调用的反射开销相对于生成整个文件可以忽略
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvExportBenchmark {
+
+    // 订单数 / 总括订单菜品数
+    @Param({"100", "2000"})
+    private int size;
+
+    private List<BlanketOrder> blanketOrders;
+    private SimpleResultSet dailyOrderLines;
+
+    private Method buildBlanketOrderCsv;
+    private Constructor<?> dailyOrderCsvWriter;
+    private Method finishDailyOrderCsv;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        buildBlanketOrderCsv = PrivateMembers.method(DownloadController.class, "buildBlanketOrderCsv",
+                String.class, List.class);
+        Class<?> writerClass = PrivateMembers.nestedClass(DownloadController.class, "DailyOrderCsvWriter");
+        dailyOrderCsvWriter = PrivateMembers.constructor(writerClass, Writer.class);
+        finishDailyOrderCsv = PrivateMembers.method(writerClass, "finish");
+
+        Date today = new Date();
+        blanketOrders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int quantity = 1 + i % 30;
+            blanketOrders.add(new BlanketOrder(today, i % 7 == 0 ? "红烧肉,大份" : "菜品" + i, "份",
+                    quantity, 18.5, 18.5 * quantity));
+        }
+        dailyOrderLines = ResultSets.dailyOrderLines(size, 3);
+    }
+
+    @Benchmark
+    public String blanketOrderCsv() throws ReflectiveOperationException {
+        return (String) buildBlanketOrderCsv.invoke(null, "2025-01-01", blanketOrders);
+    }
+
+    @Benchmark
+    public void dailyOrderCsv() throws SQLException, IOException, ReflectiveOperationException {
+        dailyOrderLines.beforeFirst();
+        Writer writer = new BufferedWriter(Writer.nullWriter(), 8192);
+        RowCallbackHandler csvWriter = (RowCallbackHandler) dailyOrderCsvWriter.newInstance(writer);
+        while (dailyOrderLines.next()) {
+            csvWriter.processRow(dailyOrderLines);
+        }
+        finishDailyOrderCsv.invoke(csvWriter);
+        writer.flush();
+    }
+}
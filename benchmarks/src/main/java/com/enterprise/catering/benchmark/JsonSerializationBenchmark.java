@@ -0,0 +1,180 @@
+package com.enterprise.catering.benchmark;
+
+import com.enterprise.catering.controller.AuthController.UserInfo;
+import com.enterprise.catering.controller.DeliveryController.DeliveryOrderView;
+import com.enterprise.catering.controller.DeliveryController.DeliveryOrdersResponse;
+import com.enterprise.catering.controller.OrderController.AvailabilityResponse;
+import com.enterprise.catering.model.BlanketOrder;
+import com.enterprise.catering.model.MenuItem;
+import com.enterprise.catering.model.Order;
+import com.enterprise.catering.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接口响应的 JSON 序列化：与应用相同配置的 ObjectMapper，对比是否注册 Blackbird 模块。
+ * xxxMap / xxxRecord 成对比较同一响应的两种写法：按改造前的控制器代码逐字段拷贝到 HashMap，
+ * 和改造后的响应记录（AuthController.UserInfo、DeliveryController.DeliveryOrdersResponse、
+ * OrderController.AvailabilityResponse），两者都包含构建响应对象和序列化的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"default", "blackbird"})
+    private String mapper;
+
+    // 列表长度（相当于一次响应中的订单 / 菜品数）
+    @Param({"50"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<Order> orders;
+    private List<MenuItem> menuItems;
+    private List<BlanketOrder> blanketOrders;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if ("blackbird".equals(mapper)) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        objectMapper = builder.build();
+
+        Date now = new Date();
+        user = new User("员工1", "user1", "secret", "13800000001", "研发部", "A区-3-1", "employee");
+        user.setId(1);
+        orders = new ArrayList<>(size);
+        menuItems = new ArrayList<>(size);
+        blanketOrders = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Order order = new Order(i, "员工" + i, "138" + (10000000 + i), now, 36.5);
+            order.setId(1000 + i);
+            order.setWorkLocation("A区-3-" + i);
+            order.setCreatedAt(now);
+            orders.add(order);
+
+            MenuItem item = new MenuItem();
+            item.setId(i);
+            item.setMenuId(3);
+            item.setRecipeId(i);
+            item.setName("菜品" + i);
+            item.setImage("/uploads/" + i + ".jpg");
+            item.setUnit("份");
+            item.setPrice(18.0);
+            item.setCreatedAt(now);
+            menuItems.add(item);
+
+            blanketOrders.add(new BlanketOrder(now, "菜品" + i, "份", 1 + i % 30, 18.0, 18.0 * (1 + i % 30)));
+        }
+    }
+
+    @Benchmark
+    public byte[] orders() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] menuItems() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(menuItems);
+    }
+
+    @Benchmark
+    public byte[] blanketOrders() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(blanketOrders);
+    }
+
+    @Benchmark
+    public byte[] userInfoMap() throws JsonProcessingException {
+        Map<String, Object> userInfo = new HashMap<>();
+        userInfo.put("id", user.getId());
+        userInfo.put("name", user.getName());
+        userInfo.put("role", user.getRole());
+        userInfo.put("phone", user.getPhone());
+        userInfo.put("workstation", user.getWorkstation());
+        return objectMapper.writeValueAsBytes(userInfo);
+    }
+
+    @Benchmark
+    public byte[] userInfoRecord() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new UserInfo(user.getId(), user.getName(), user.getRole(),
+                user.getPhone(), user.getWorkstation()));
+    }
+
+    @Benchmark
+    public byte[] deliveryOrdersMap() throws JsonProcessingException {
+        List<Map<String, Object>> ordersWithWorkLocation = new ArrayList<>();
+        for (Order order : orders) {
+            Map<String, Object> orderMap = new HashMap<>();
+            orderMap.put("id", order.getId());
+            orderMap.put("userId", order.getUserId());
+            orderMap.put("userName", order.getUserName());
+            orderMap.put("phone", order.getPhone());
+            orderMap.put("orderTime", order.getOrderTime());
+            orderMap.put("mealDate", order.getMealDate());
+            orderMap.put("totalPrice", order.getTotalPrice());
+            orderMap.put("createdAt", order.getCreatedAt());
+            orderMap.put("workLocation", order.getWorkLocation());
+            ordersWithWorkLocation.add(orderMap);
+        }
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("canPrint", true);
+        resp.put("deliveryDate", "2024-01-01");
+        resp.put("orders", ordersWithWorkLocation);
+        return objectMapper.writeValueAsBytes(resp);
+    }
+
+    @Benchmark
+    public byte[] deliveryOrdersRecord() throws JsonProcessingException {
+        List<DeliveryOrderView> ordersWithWorkLocation = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            ordersWithWorkLocation.add(new DeliveryOrderView(order.getId(), order.getUserId(), order.getUserName(),
+                    order.getPhone(), order.getWorkLocation(), order.getOrderTime(), order.getMealDate(),
+                    order.getTotalPrice(), order.getCreatedAt()));
+        }
+        return objectMapper.writeValueAsBytes(new DeliveryOrdersResponse(true, "2024-01-01", ordersWithWorkLocation));
+    }
+
+    @Benchmark
+    public byte[] availabilityMap() throws JsonProcessingException {
+        Map<String, Object> resp = new HashMap<>();
+        resp.put("orderDate", "2024-01-01");
+        resp.put("deadlinePassed", false);
+        resp.put("hasOrderedToday", true);
+        resp.put("orderDeadline", "10:00");
+        resp.put("deliveryStartTime", "11:30");
+        return objectMapper.writeValueAsBytes(resp);
+    }
+
+    @Benchmark
+    public byte[] availabilityRecord() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new AvailabilityResponse("2024-01-01", false, true, "10:00", "11:30"));
+    }
+}
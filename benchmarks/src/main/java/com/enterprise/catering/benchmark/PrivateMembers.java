@@ -0,0 +1,38 @@
+package com.enterprise.catering.benchmark;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+/**
+ * 通过反射取得主工程中的私有成员（RowMapper、CSV 生成器等），
+ * 只在 @Setup 中调用，基准方法里通过接口或已解析的 Method 调用，不为基准测试放宽主工程的可见性
+ */
+final class PrivateMembers {
+
+    private PrivateMembers() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T staticField(Class<?> owner, String name) throws ReflectiveOperationException {
+        Field field = owner.getDeclaredField(name);
+        field.setAccessible(true);
+        return (T) field.get(null);
+    }
+
+    static Method method(Class<?> owner, String name, Class<?>... parameterTypes) throws ReflectiveOperationException {
+        Method method = owner.getDeclaredMethod(name, parameterTypes);
+        method.setAccessible(true);
+        return method;
+    }
+
+    static Class<?> nestedClass(Class<?> owner, String simpleName) throws ClassNotFoundException {
+        return Class.forName(owner.getName() + "$" + simpleName);
+    }
+
+    static <T> Constructor<T> constructor(Class<T> type, Class<?>... parameterTypes) throws ReflectiveOperationException {
+        Constructor<T> constructor = type.getDeclaredConstructor(parameterTypes);
+        constructor.setAccessible(true);
+        return constructor;
+    }
+}
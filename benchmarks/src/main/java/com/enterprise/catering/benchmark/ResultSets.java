@@ -0,0 +1,123 @@
+package com.enterprise.catering.benchmark;
+
+import org.h2.tools.SimpleResultSet;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * 基准测试用的内存 ResultSet（H2 SimpleResultSet），列名与 sjk.sql 中的表结构一致
+ */
+public final class ResultSets {
+
+    private static final Timestamp NOW = new Timestamp(System.currentTimeMillis());
+    private static final Date TODAY = new Date(System.currentTimeMillis());
+
+    private ResultSets() {
+    }
+
+    /**
+     * orders 表的一行，游标已定位到该行
+     */
+    public static SimpleResultSet orderRow() throws SQLException {
+        SimpleResultSet rs = new SimpleResultSet();
+        rs.addColumn("id", Types.INTEGER, 10, 0);
+        rs.addColumn("user_id", Types.INTEGER, 10, 0);
+        rs.addColumn("user_name", Types.VARCHAR, 50, 0);
+        rs.addColumn("phone", Types.VARCHAR, 20, 0);
+        rs.addColumn("work_location", Types.VARCHAR, 100, 0);
+        rs.addColumn("order_time", Types.TIMESTAMP, 0, 0);
+        rs.addColumn("meal_date", Types.DATE, 0, 0);
+        rs.addColumn("total_price", Types.DOUBLE, 10, 2);
+        rs.addColumn("created_at", Types.TIMESTAMP, 0, 0);
+        rs.addRow(1001, 42, "张三", "13800000000", "A区-3-15", NOW, TODAY, 36.5, NOW);
+        return positioned(rs);
+    }
+
+    /**
+     * order_items 表的一行，游标已定位到该行
+     */
+    public static SimpleResultSet orderItemRow() throws SQLException {
+        SimpleResultSet rs = new SimpleResultSet();
+        rs.addColumn("id", Types.INTEGER, 10, 0);
+        rs.addColumn("order_id", Types.INTEGER, 10, 0);
+        rs.addColumn("menu_item_id", Types.INTEGER, 10, 0);
+        rs.addColumn("name", Types.VARCHAR, 100, 0);
+        rs.addColumn("unit", Types.VARCHAR, 20, 0);
+        rs.addColumn("quantity", Types.INTEGER, 10, 0);
+        rs.addColumn("price", Types.DOUBLE, 10, 2);
+        rs.addColumn("subtotal", Types.DOUBLE, 10, 2);
+        rs.addRow(5001, 1001, 7, "宫保鸡丁", "份", 2, 18.0, 36.0);
+        return positioned(rs);
+    }
+
+    /**
+     * menu_items 表的一行，游标已定位到该行
+     */
+    public static SimpleResultSet menuItemRow() throws SQLException {
+        SimpleResultSet rs = new SimpleResultSet();
+        rs.addColumn("id", Types.INTEGER, 10, 0);
+        rs.addColumn("menu_id", Types.INTEGER, 10, 0);
+        rs.addColumn("recipe_id", Types.INTEGER, 10, 0);
+        rs.addColumn("name", Types.VARCHAR, 100, 0);
+        rs.addColumn("image", Types.VARCHAR, 255, 0);
+        rs.addColumn("unit", Types.VARCHAR, 20, 0);
+        rs.addColumn("price", Types.DOUBLE, 10, 2);
+        rs.addColumn("created_at", Types.TIMESTAMP, 0, 0);
+        rs.addRow(7, 3, 12, "宫保鸡丁", "/uploads/gongbao.jpg", "份", 18.0, NOW);
+        return positioned(rs);
+    }
+
+    /**
+     * users 表的一行，游标已定位到该行
+     */
+    public static SimpleResultSet userRow() throws SQLException {
+        SimpleResultSet rs = new SimpleResultSet();
+        rs.addColumn("id", Types.INTEGER, 10, 0);
+        rs.addColumn("name", Types.VARCHAR, 50, 0);
+        rs.addColumn("login_name", Types.VARCHAR, 50, 0);
+        rs.addColumn("password", Types.VARCHAR, 100, 0);
+        rs.addColumn("phone", Types.VARCHAR, 20, 0);
+        rs.addColumn("department", Types.VARCHAR, 50, 0);
+        rs.addColumn("workstation", Types.VARCHAR, 100, 0);
+        rs.addColumn("role", Types.VARCHAR, 20, 0);
+        rs.addRow(42, "张三", "zhangsan", "123456", "13800000000", "研发部", "A区-3-15", "employee");
+        return positioned(rs);
+    }
+
+    /**
+     * 每日订单导出查询（orders LEFT JOIN order_items）的结果：
+     * orderCount 张订单，每张 itemsPerOrder 个订单项，按订单排序；可用 beforeFirst() 重复遍历
+     */
+    public static SimpleResultSet dailyOrderLines(int orderCount, int itemsPerOrder) {
+        SimpleResultSet rs = new SimpleResultSet();
+        rs.setAutoClose(false);
+        rs.addColumn("order_id", Types.INTEGER, 10, 0);
+        rs.addColumn("user_name", Types.VARCHAR, 50, 0);
+        rs.addColumn("phone", Types.VARCHAR, 20, 0);
+        rs.addColumn("order_time", Types.TIMESTAMP, 0, 0);
+        rs.addColumn("total_price", Types.DOUBLE, 10, 2);
+        rs.addColumn("item_id", Types.INTEGER, 10, 0);
+        rs.addColumn("name", Types.VARCHAR, 100, 0);
+        rs.addColumn("unit", Types.VARCHAR, 20, 0);
+        rs.addColumn("quantity", Types.INTEGER, 10, 0);
+        rs.addColumn("price", Types.DOUBLE, 10, 2);
+        rs.addColumn("subtotal", Types.DOUBLE, 10, 2);
+        int itemId = 1;
+        for (int order = 1; order <= orderCount; order++) {
+            for (int i = 0; i < itemsPerOrder; i++) {
+                rs.addRow(order, "员工" + order, "138" + (10000000 + order), NOW, 18.0 * itemsPerOrder,
+                        itemId++, i % 5 == 0 ? "红烧肉,大份" : "宫保鸡丁", "份", 1, 18.0, 18.0);
+            }
+        }
+        return rs;
+    }
+
+    private static SimpleResultSet positioned(SimpleResultSet rs) throws SQLException {
+        rs.setAutoClose(false);
+        rs.next();
+        return rs;
+    }
+}
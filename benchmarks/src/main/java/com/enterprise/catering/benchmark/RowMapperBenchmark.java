@@ -0,0 +1,78 @@
+package com.enterprise.catering.benchmark;
+
+import com.enterprise.catering.dao.MenuItemDAO;
+import com.enterprise.catering.dao.OrderDAO;
+import com.enterprise.catering.dao.UserDAO;
+import com.enterprise.catering.model.MenuItem;
+import com.enterprise.catering.model.Order;
+import com.enterprise.catering.model.OrderItem;
+import com.enterprise.catering.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DAO 中静态 RowMapper 的单行映射开销（私有的 RowMapper 在 @Setup 中通过反射取得）
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private ResultSet orderRow;
+    private ResultSet orderItemRow;
+    private ResultSet menuItemRow;
+    private ResultSet userRow;
+
+    private RowMapper<Order> orderMapper;
+    private RowMapper<OrderItem> orderItemMapper;
+    private RowMapper<MenuItem> menuItemMapper;
+    private RowMapper<User> userMapper;
+
+    @Setup
+    public void setUp() throws SQLException, ReflectiveOperationException {
+        orderMapper = PrivateMembers.staticField(OrderDAO.class, "ORDER_ROW_MAPPER");
+        orderItemMapper = PrivateMembers.staticField(OrderDAO.class, "ORDER_ITEM_ROW_MAPPER");
+        menuItemMapper = PrivateMembers.staticField(MenuItemDAO.class, "MENU_ITEM_ROW_MAPPER");
+        userMapper = PrivateMembers.staticField(UserDAO.class, "USER_ROW_MAPPER");
+        orderRow = ResultSets.orderRow();
+        orderItemRow = ResultSets.orderItemRow();
+        menuItemRow = ResultSets.menuItemRow();
+        userRow = ResultSets.userRow();
+    }
+
+    @Benchmark
+    public Order order() throws SQLException {
+        return orderMapper.mapRow(orderRow, 0);
+    }
+
+    @Benchmark
+    public OrderItem orderItem() throws SQLException {
+        return orderItemMapper.mapRow(orderItemRow, 0);
+    }
+
+    @Benchmark
+    public MenuItem menuItem() throws SQLException {
+        return menuItemMapper.mapRow(menuItemRow, 0);
+    }
+
+    @Benchmark
+    public User user() throws SQLException {
+        return userMapper.mapRow(userRow, 0);
+    }
+}
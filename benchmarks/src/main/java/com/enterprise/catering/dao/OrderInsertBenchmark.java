@@ -0,0 +1,162 @@
+package com.enterprise.catering.dao;
+
+import com.enterprise.catering.model.Order;
+import com.enterprise.catering.model.OrderItem;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Field;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OrderDAO 写入吞吐量：对比默认连接池配置与 application-pool-tuned.yml 中的调优配置
+ * （PreparedStatement 缓存、服务端预编译、rewriteBatchedStatements、固定大小连接池）。
+ *
+ * 需要真实 MySQL，且会清空表，只能指向专用的压测库（库名须包含 bench）：
+ *   java -Djdbc.url=jdbc:mysql://localhost:3306/catering_bench -Djdbc.user=root -Djdbc.password=123456 \
+ *        -jar target/benchmarks.jar OrderInsertBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class OrderInsertBenchmark {
+
+    private static final String BASE_PARAMS = "useSSL=false&serverTimezone=Asia/Shanghai&characterEncoding=utf-8";
+    private static final String TUNED_PARAMS = "&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048"
+            + "&useServerPrepStmts=true&rewriteBatchedStatements=true&useLocalSessionState=true"
+            + "&cacheServerConfiguration=true&elideSetAutoCommits=true";
+    // 合成用户数：订单按 (用户, 日期) 唯一，用户轮转一遍后日期加一天
+    private static final int USERS = 1000;
+    private static final LocalDate BASE_DAY = LocalDate.of(2000, 1, 1);
+    // 批量写入时每批的订单数
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"default", "tuned"})
+    private String pool;
+
+    private HikariDataSource dataSource;
+    private OrderDAO orderDAO;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = System.getProperty("jdbc.url", "jdbc:mysql://localhost:3306/catering_bench");
+        if (!url.contains("bench")) {
+            throw new IllegalArgumentException("该基准测试会清空 orders / order_items 表，jdbc.url 必须指向压测专用库: " + url);
+        }
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(url + (url.contains("?") ? "&" : "?") + BASE_PARAMS + ("tuned".equals(pool) ? TUNED_PARAMS : ""));
+        config.setUsername(System.getProperty("jdbc.user", "root"));
+        config.setPassword(System.getProperty("jdbc.password", "123456"));
+        if ("tuned".equals(pool)) {
+            config.setMaximumPoolSize(30);
+            config.setMinimumIdle(30);
+            config.setConnectionTimeout(3000);
+        }
+        dataSource = new HikariDataSource(config);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS orders ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, user_id INT NOT NULL, user_name VARCHAR(50) NOT NULL, "
+                + "phone VARCHAR(20) DEFAULT NULL, work_location VARCHAR(100) DEFAULT NULL, "
+                + "order_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, meal_date DATE NOT NULL, "
+                + "total_price DECIMAL(10,2) NOT NULL DEFAULT 0, created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP, "
+                + "idempotency_key VARCHAR(64) DEFAULT NULL, "
+                + "UNIQUE KEY uk_orders_user_date (user_id, meal_date), INDEX idx_orders_meal_date (meal_date)"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS order_items ("
+                + "id INT AUTO_INCREMENT PRIMARY KEY, order_id INT NOT NULL, menu_item_id INT DEFAULT NULL, "
+                + "name VARCHAR(100) NOT NULL, unit VARCHAR(20) DEFAULT NULL, quantity INT NOT NULL DEFAULT 1, "
+                + "price DECIMAL(10,2) NOT NULL DEFAULT 0, subtotal DECIMAL(10,2) NOT NULL DEFAULT 0, "
+                + "INDEX idx_order_items_order (order_id)"
+                + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4");
+        jdbcTemplate.execute("TRUNCATE TABLE order_items");
+        jdbcTemplate.execute("TRUNCATE TABLE orders");
+
+        orderDAO = new OrderDAO();
+        Field field = OrderDAO.class.getDeclaredField("jdbcTemplate");
+        field.setAccessible(true);
+        field.set(orderDAO, jdbcTemplate);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    /**
+     * 单张订单：插入订单后批量插入 3 个订单项（对应同步下单路径）
+     */
+    @Benchmark
+    public Order singleOrder() {
+        Order order = nextOrder();
+        orderDAO.addOrder(order);
+        orderDAO.addOrderItems(itemsFor(order));
+        return order;
+    }
+
+    /**
+     * 批量写入：一次批处理插入 BATCH_SIZE 张订单及其订单项（对应异步受理队列的写线程）
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public List<Order> batchOfOrders() {
+        List<Order> orders = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            orders.add(nextOrder());
+        }
+        orderDAO.addOrders(orders);
+        List<OrderItem> items = new ArrayList<>(BATCH_SIZE * 3);
+        for (Order order : orders) {
+            items.addAll(itemsFor(order));
+        }
+        orderDAO.addOrderItems(items);
+        return orders;
+    }
+
+    private Order nextOrder() {
+        long n = sequence.getAndIncrement();
+        int userId = (int) (n % USERS) + 1;
+        LocalDate day = BASE_DAY.plusDays(n / USERS);
+        Order order = new Order(userId, "员工" + userId, "13800000000",
+                Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant()), 54.0);
+        order.setWorkLocation("A区-3-15");
+        return order;
+    }
+
+    private static List<OrderItem> itemsFor(Order order) {
+        List<OrderItem> items = new ArrayList<>(3);
+        for (int i = 1; i <= 3; i++) {
+            OrderItem item = new OrderItem(null, i, "菜品" + i, "份", 1, 18.0, 18.0);
+            item.setOrderId(order.getId());
+            items.add(item);
+        }
+        return items;
+    }
+}
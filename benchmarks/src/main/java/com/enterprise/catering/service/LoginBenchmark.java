@@ -0,0 +1,82 @@
+package com.enterprise.catering.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录时密码校验的吞吐量（不含数据库查询），模拟登录高峰时多个请求线程同时校验：
+ * - bcryptVerify   : 每次都计算 BCrypt（首次登录、缓存过期或密码错误）
+ * - cachedVerify   : 命中已校验凭据缓存（同一账号短时间内重复登录）
+ * - legacyPlaintext: 旧明文密码的比较（升级前的基线）
+ * cost 取默认的 10 与更高的 12 对比，用于评估调整 catering.auth.bcrypt-cost 后单核能承受的登录速率。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class LoginBenchmark {
+
+    private static final String PASSWORD = "123456";
+
+    @Param({"10", "12"})
+    private int cost;
+
+    private PasswordService uncached;
+    private PasswordService cached;
+    private String hash;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        uncached = newPasswordService(cost, 0);
+        cached = newPasswordService(cost, 5000);
+        hash = uncached.hash(PASSWORD);
+        cached.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean bcryptVerify() {
+        return uncached.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean cachedVerify() {
+        return cached.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean legacyPlaintext() {
+        return uncached.matches(PASSWORD, PASSWORD);
+    }
+
+    private static PasswordService newPasswordService(int cost, int cacheSize) throws Exception {
+        PasswordService service = new PasswordService();
+        set(service, "bcryptCost", cost);
+        set(service, "verifiedCacheSize", cacheSize);
+        set(service, "verifiedCacheTtlMinutes", 30L);
+        service.init();
+        return service;
+    }
+
+    private static void set(PasswordService service, String name, Object value) throws Exception {
+        Field field = PasswordService.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+}
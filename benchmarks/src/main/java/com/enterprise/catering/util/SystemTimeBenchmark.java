@@ -0,0 +1,44 @@
+package com.enterprise.catering.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 下单路径上的时间判断（读取本地配置快照，不访问数据库）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SystemTimeBenchmark {
+
+    private final LocalDate today = LocalDate.now(SystemTimeUtil.ZONE);
+
+    @Benchmark
+    public boolean deadlinePassedForToday() {
+        return SystemTimeUtil.isOrderDeadlinePassedForDate(today);
+    }
+
+    @Benchmark
+    public LocalDate availableOrderDate() {
+        return SystemTimeUtil.getAvailableOrderDate();
+    }
+
+    @Benchmark
+    public boolean availabilityCheck() {
+        // 与 /api/orders/availability、下单接口相同的组合调用
+        return SystemTimeUtil.isOrderDeadlinePassedForDate(SystemTimeUtil.getAvailableOrderDate());
+    }
+}
@@ -0,0 +1,18 @@
+-- 压测数据：管理员 + 2000 名合成员工（emp1 ~ emp2000，密码均为 123456），今明两天的菜单
+-- 截止时间与配餐时间设为 23:59，任何时刻都可以为“今天”下单
+INSERT INTO system_config (id, order_deadline, delivery_start_time, version) VALUES (1, '23:59', '23:59', 0);
+
+INSERT INTO users (name, login_name, password, phone, department, workstation, role)
+VALUES ('管理员', 'admin', '123456', '13800000000', '行政部', NULL, 'manager');
+
+INSERT INTO users (name, login_name, password, phone, department, workstation, role)
+SELECT CONCAT('员工', X), CONCAT('emp', X), '123456', CONCAT('139', LPAD(CAST(X AS VARCHAR), 8, '0')),
+       CONCAT('部门', MOD(X, 20)), CONCAT('A区-', MOD(X, 10), '-', X), 'employee'
+FROM SYSTEM_RANGE(1, 2000);
+
+INSERT INTO menus (name, date, active) VALUES ('今日午餐', CURRENT_DATE, TRUE);
+INSERT INTO menus (name, date, active) VALUES ('明日午餐', DATEADD('DAY', 1, CURRENT_DATE), TRUE);
+
+INSERT INTO menu_items (menu_id, name, unit, price)
+SELECT M.id, CONCAT('菜品', X), '份', 10 + MOD(X, 15)
+FROM menus M, SYSTEM_RANGE(1, 12);
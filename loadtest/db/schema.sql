@@ -0,0 +1,127 @@
+-- 压测用内嵌数据库表结构（H2，MySQL 兼容模式），与 sjk.sql 保持一致
+DROP TABLE IF EXISTS daily_item_sales;
+DROP TABLE IF EXISTS blanket_orders;
+DROP TABLE IF EXISTS order_items;
+DROP TABLE IF EXISTS orders;
+DROP TABLE IF EXISTS menu_items;
+DROP TABLE IF EXISTS menus;
+DROP TABLE IF EXISTS recipes;
+DROP TABLE IF EXISTS users;
+DROP TABLE IF EXISTS system_config;
+
+CREATE TABLE users (
+    id           INT AUTO_INCREMENT PRIMARY KEY,
+    name         VARCHAR(50)  NOT NULL,
+    login_name   VARCHAR(50)  NOT NULL UNIQUE,
+    password     VARCHAR(100) NOT NULL,
+    phone        VARCHAR(20)  DEFAULT NULL,
+    department   VARCHAR(100) DEFAULT NULL,
+    workstation  VARCHAR(100) DEFAULT NULL,
+    role         VARCHAR(50)  NOT NULL
+);
+CREATE INDEX idx_users_role ON users (role);
+
+CREATE TABLE recipes (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    category   VARCHAR(100) DEFAULT NULL,
+    image      VARCHAR(255) DEFAULT NULL,
+    unit       VARCHAR(20)  DEFAULT NULL,
+    price      DECIMAL(10,2) NOT NULL DEFAULT 0,
+    created_at TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE menus (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    name       VARCHAR(100) NOT NULL,
+    date       DATE         NOT NULL,
+    active     BOOLEAN      NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_menus_date ON menus (date);
+
+CREATE TABLE menu_items (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    menu_id    INT          NOT NULL,
+    recipe_id  INT          DEFAULT NULL,
+    name       VARCHAR(100) NOT NULL,
+    image      VARCHAR(255) DEFAULT NULL,
+    unit       VARCHAR(20)  DEFAULT NULL,
+    price      DECIMAL(10,2) NOT NULL DEFAULT 0,
+    created_at TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_menu_items_menu FOREIGN KEY (menu_id) REFERENCES menus(id) ON DELETE CASCADE
+);
+
+CREATE TABLE orders (
+    id            INT AUTO_INCREMENT PRIMARY KEY,
+    user_id       INT          NOT NULL,
+    user_name     VARCHAR(50)  NOT NULL,
+    phone         VARCHAR(20)  DEFAULT NULL,
+    work_location VARCHAR(100) DEFAULT NULL,
+    order_time    TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    meal_date     DATE         NOT NULL,
+    total_price   DECIMAL(10,2) NOT NULL DEFAULT 0,
+    created_at    TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    idempotency_key VARCHAR(64) DEFAULT NULL,
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users(id),
+    CONSTRAINT uk_orders_user_date UNIQUE (user_id, meal_date)
+);
+CREATE INDEX idx_orders_meal_date ON orders (meal_date);
+
+CREATE TABLE order_items (
+    id           INT AUTO_INCREMENT PRIMARY KEY,
+    order_id     INT          NOT NULL,
+    menu_item_id INT          DEFAULT NULL,
+    name         VARCHAR(100) NOT NULL,
+    unit         VARCHAR(20)  DEFAULT NULL,
+    quantity     INT          NOT NULL DEFAULT 1,
+    price        DECIMAL(10,2) NOT NULL DEFAULT 0,
+    subtotal     DECIMAL(10,2) NOT NULL DEFAULT 0,
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
+);
+CREATE INDEX idx_order_items_order ON order_items (order_id);
+
+CREATE TABLE blanket_orders (
+    id             INT AUTO_INCREMENT PRIMARY KEY,
+    date           DATE         NOT NULL,
+    item_name      VARCHAR(100) NOT NULL,
+    unit           VARCHAR(20)  NOT NULL DEFAULT '',
+    total_quantity INT          NOT NULL DEFAULT 0,
+    price          DECIMAL(10,2) NOT NULL DEFAULT 0,
+    subtotal       DECIMAL(10,2) NOT NULL DEFAULT 0,
+    CONSTRAINT uk_blanket_orders_item UNIQUE (date, item_name, unit, price)
+);
+
+CREATE TABLE daily_item_sales (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    meal_date  DATE          NOT NULL,
+    user_id    INT           NOT NULL,
+    name       VARCHAR(100)  NOT NULL,
+    unit       VARCHAR(20)   NOT NULL DEFAULT '',
+    price      DECIMAL(10,2) NOT NULL DEFAULT 0,
+    qty        INT           NOT NULL DEFAULT 0,
+    amount     DECIMAL(10,2) NOT NULL DEFAULT 0,
+    CONSTRAINT uk_daily_item_sales UNIQUE (meal_date, user_id, name, unit, price)
+);
+CREATE INDEX idx_daily_item_sales_user ON daily_item_sales (user_id, meal_date);
+
+CREATE TABLE system_config (
+    id                  INT PRIMARY KEY CHECK (id = 1),
+    order_deadline      VARCHAR(5) NOT NULL DEFAULT '09:00',
+    delivery_start_time VARCHAR(5) NOT NULL DEFAULT '11:30',
+    version             BIGINT     NOT NULL DEFAULT 0
+);
+
+CREATE TABLE revoked_tokens (
+    token_id   VARCHAR(32) PRIMARY KEY,
+    expires_at TIMESTAMP   NOT NULL,
+    revoked_at TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_revoked_tokens_expires ON revoked_tokens (expires_at);
+
+CREATE TABLE revoked_user_tokens (
+    user_id        INT          PRIMARY KEY,
+    revoked_before TIMESTAMP(3) NOT NULL,
+    expires_at     TIMESTAMP    NOT NULL
+);
+CREATE INDEX idx_revoked_user_tokens_expires ON revoked_user_tokens (expires_at);
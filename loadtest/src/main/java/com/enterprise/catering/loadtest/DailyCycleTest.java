@@ -0,0 +1,275 @@
+package com.enterprise.catering.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 每日订餐流程压测，模拟早上的下单高峰：
+ * 1. N 名员工各自登录（POST /api/auth/login，每人独立 Session）
+ * 2. 轮询 /api/orders/availability 与 /api/menus/today
+ * 3. 随机选 1~3 个菜品下单（POST /api/orders）
+ * 4. 管理员登录后并发读取厨房总括订单（/api/kitchen/blanket-orders）与配送订单（/api/delivery/orders）
+ * 最后按接口输出吞吐量及 p50 / p99 延迟。
+ *
+ * 配合 loadtest profile（内嵌 H2 + 合成数据）启动服务后运行；参数（系统属性）：
+ *   -Dbase.url=http://localhost:8081  -Dusers=1000  -Dconcurrency=200  -Dpolls=3  -Dreads=2000
+ *   -Duser.prefix=emp  -Duser.password=123456  -Dadmin.name=admin  -Dadmin.password=123456
+ */
+public class DailyCycleTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+    // 同时在途的请求数上限
+    private final Semaphore inFlight;
+    private final Map<String, LatencyStats> stats = new LinkedHashMap<>();
+    private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+
+    private DailyCycleTest(String baseUrl, int concurrency) {
+        this.baseUrl = baseUrl;
+        this.inFlight = new Semaphore(concurrency);
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("base.url", "http://localhost:8081");
+        int users = Integer.getInteger("users", 1000);
+        int concurrency = Integer.getInteger("concurrency", 200);
+        int polls = Integer.getInteger("polls", 3);
+        int reads = Integer.getInteger("reads", 2000);
+        String userPrefix = System.getProperty("user.prefix", "emp");
+        String userPassword = System.getProperty("user.password", "123456");
+        String adminName = System.getProperty("admin.name", "admin");
+        String adminPassword = System.getProperty("admin.password", "123456");
+
+        DailyCycleTest test = new DailyCycleTest(baseUrl, concurrency);
+        System.out.println("员工数: " + users + "，并发: " + concurrency + "，目标: " + baseUrl);
+
+        List<Employee> employees = new ArrayList<>(users);
+        for (int i = 1; i <= users; i++) {
+            employees.add(new Employee(userPrefix + i, userPassword));
+        }
+
+        test.phase("登录", employees, test::login);
+        test.phase("浏览", employees, e -> {
+            for (int i = 0; i < polls; i++) {
+                test.browse(e);
+            }
+        });
+        test.phase("下单", employees, test::placeOrder);
+
+        Employee admin = new Employee(adminName, adminPassword);
+        test.login(admin);
+        if (admin.userId == null) {
+            throw new IllegalStateException("管理员登录失败: " + adminName);
+        }
+        List<Employee> readers = new ArrayList<>(reads);
+        for (int i = 0; i < reads; i++) {
+            readers.add(admin);
+        }
+        test.phase("厨房/配送查询", readers, e -> {
+            test.get(e, "GET /api/kitchen/blanket-orders", "/api/kitchen/blanket-orders");
+            test.get(e, "GET /api/delivery/orders", "/api/delivery/orders");
+        });
+
+        test.report();
+        test.executor.shutdown();
+    }
+
+    /**
+     * 并发执行一个阶段：每个元素一个虚拟线程，由信号量限制同时在途的请求数
+     */
+    private void phase(String name, List<Employee> employees, Step step) throws Exception {
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(employees.size());
+        for (Employee employee : employees) {
+            futures.add(executor.submit(() -> {
+                try {
+                    step.run(employee);
+                } catch (Exception e) {
+                    System.err.println(name + "失败（" + employee.loginName + "）: " + e.getMessage());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        phaseNanos.put(name, elapsed);
+        System.out.printf("阶段 %-12s 完成，耗时 %.1f s%n", name, elapsed / 1_000_000_000.0);
+    }
+
+    private void login(Employee employee) throws Exception {
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("loginName", employee.loginName);
+        body.put("password", employee.password);
+        HttpResponse<String> response = send(employee, "POST /api/auth/login",
+                post(employee, "/api/auth/login", body).build());
+        if (response.statusCode() == 200) {
+            // 保存 Session Cookie，后续请求据此识别身份
+            employee.sessionCookie = response.headers().firstValue("Set-Cookie")
+                    .map(cookie -> cookie.split(";", 2)[0])
+                    .orElse(null);
+            JsonNode user = MAPPER.readTree(response.body());
+            employee.userId = user.path("id").asInt();
+            employee.name = user.path("name").asText();
+            employee.phone = user.path("phone").asText(null);
+        }
+    }
+
+    private void browse(Employee employee) throws Exception {
+        if (employee.userId == null) {
+            return;
+        }
+        get(employee, "GET /api/orders/availability", "/api/orders/availability?userId=" + employee.userId);
+        HttpResponse<String> menus = get(employee, "GET /api/menus/today", "/api/menus/today");
+        if (menus.statusCode() == 200 && employee.menuItemIds == null) {
+            employee.menuItemIds = menuItemIds(MAPPER.readTree(menus.body()));
+        }
+    }
+
+    private void placeOrder(Employee employee) throws Exception {
+        if (employee.userId == null || employee.menuItemIds == null || employee.menuItemIds.isEmpty()) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ObjectNode body = MAPPER.createObjectNode();
+        body.put("userId", employee.userId);
+        body.put("userName", employee.name);
+        body.put("phone", employee.phone);
+        ArrayNode items = body.putArray("items");
+        int count = 1 + random.nextInt(Math.min(3, employee.menuItemIds.size()));
+        for (int i = 0; i < count; i++) {
+            ObjectNode item = items.addObject();
+            item.put("menuItemId", employee.menuItemIds.get(random.nextInt(employee.menuItemIds.size())));
+            item.put("quantity", 1 + random.nextInt(2));
+        }
+        HttpRequest request = post(employee, "/api/orders", body)
+                .header("Idempotency-Key", employee.loginName + "-" + System.currentTimeMillis())
+                .build();
+        send(employee, "POST /api/orders", request);
+    }
+
+    private HttpResponse<String> get(Employee employee, String name, String path) throws Exception {
+        return send(employee, name, request(employee, path).GET().build());
+    }
+
+    private HttpRequest.Builder post(Employee employee, String path, JsonNode body) throws Exception {
+        return request(employee, path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)));
+    }
+
+    private HttpRequest.Builder request(Employee employee, String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (employee.sessionCookie != null) {
+            builder.header("Cookie", employee.sessionCookie);
+        }
+        return builder;
+    }
+
+    private HttpResponse<String> send(Employee employee, String name, HttpRequest request) throws Exception {
+        LatencyStats endpoint;
+        synchronized (stats) {
+            endpoint = stats.computeIfAbsent(name, LatencyStats::new);
+        }
+        inFlight.acquire();
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            endpoint.record(System.nanoTime() - start, response.statusCode() < 400);
+            return response;
+        } catch (Exception e) {
+            endpoint.record(System.nanoTime() - start, false);
+            throw e;
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    /**
+     * 从 /api/menus/today 的 itemsMap 中取出全部菜品ID
+     */
+    private static List<Integer> menuItemIds(JsonNode menus) {
+        List<Integer> ids = new ArrayList<>();
+        Iterator<JsonNode> lists = menus.path("itemsMap").elements();
+        while (lists.hasNext()) {
+            for (JsonNode item : lists.next()) {
+                ids.add(item.path("id").asInt());
+            }
+        }
+        return ids;
+    }
+
+    private void report() {
+        long total = 0;
+        for (long nanos : phaseNanos.values()) {
+            total += nanos;
+        }
+        System.out.println();
+        System.out.println("各接口统计（吞吐量按所在阶段耗时计算）：");
+        for (Map.Entry<String, LatencyStats> entry : stats.entrySet()) {
+            System.out.println(entry.getValue().format(phaseNanosFor(entry.getKey(), total)));
+        }
+    }
+
+    private long phaseNanosFor(String endpoint, long total) {
+        if (endpoint.startsWith("POST /api/auth/login")) {
+            return phaseNanos.getOrDefault("登录", total);
+        }
+        if (endpoint.startsWith("GET /api/orders/availability") || endpoint.startsWith("GET /api/menus/today")) {
+            return phaseNanos.getOrDefault("浏览", total);
+        }
+        if (endpoint.startsWith("POST /api/orders")) {
+            return phaseNanos.getOrDefault("下单", total);
+        }
+        return phaseNanos.getOrDefault("厨房/配送查询", total);
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        void run(Employee employee) throws Exception;
+    }
+
+    /**
+     * 合成员工：各自保存登录后的 Session Cookie，对应服务端独立的 Session
+     */
+    private static final class Employee {
+        private final String loginName;
+        private final String password;
+        private volatile String sessionCookie;
+        private volatile Integer userId;
+        private volatile String name;
+        private volatile String phone;
+        private volatile List<Integer> menuItemIds;
+
+        private Employee(String loginName, String password) {
+            this.loginName = loginName;
+            this.password = password;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.enterprise.catering.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 单个接口的延迟统计：记录每次请求耗时（纳秒），输出吞吐量及 p50 / p99
+ */
+public class LatencyStats {
+
+    private final String name;
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+
+    public LatencyStats(String name) {
+        this.name = name;
+    }
+
+    public synchronized void record(long nanos, boolean ok) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, count * 2);
+        }
+        latencies[count++] = nanos;
+        if (!ok) {
+            errors++;
+        }
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * @param elapsedNanos 统计区间的总耗时，用于计算吞吐量
+     */
+    public synchronized String format(long elapsedNanos) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        return String.format("%-36s 请求数 %8d  错误 %6d  吞吐 %9.1f req/s  p50 %8.2f ms  p99 %8.2f ms",
+                name, count, errors, seconds > 0 ? count / seconds : 0,
+                percentile(sorted, 0.50), percentile(sorted, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,106 @@
+package com.enterprise.catering.loadtest;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 吞吐量对比压测：
+ * 登录一次后，以固定并发分别持续请求 GET /api/menus/today 和 GET /api/orders，
+ * 输出每个接口的吞吐量及 p50 / p99 延迟。
+ * 分别以 CATERING_VIRTUAL_THREADS=false / true 启动服务各跑一次，即可对比平台线程与虚拟线程。
+ *
+ * 参数（系统属性）：
+ *   -Dbase.url=http://localhost:8081  -Dlogin.name=...  -Dlogin.password=...
+ *   -Dconcurrency=200  -Dduration.seconds=30  -Dwarmup.seconds=5
+ */
+public class ThroughputTest {
+
+    private static final Pattern USER_ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("base.url", "http://localhost:8081");
+        String loginName = System.getProperty("login.name", "admin");
+        String password = System.getProperty("login.password", "123456");
+        int concurrency = Integer.getInteger("concurrency", 200);
+        int durationSeconds = Integer.getInteger("duration.seconds", 30);
+        int warmupSeconds = Integer.getInteger("warmup.seconds", 5);
+
+        // 客户端使用虚拟线程，保证压测端本身不是瓶颈
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+
+        int userId = login(client, baseUrl, loginName, password);
+        System.out.println("登录成功，用户ID: " + userId + "，并发: " + concurrency + "，时长: " + durationSeconds + "s");
+
+        List<String> paths = List.of("/api/menus/today", "/api/orders?userId=" + userId);
+        for (String path : paths) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .timeout(Duration.ofSeconds(30))
+                    .GET()
+                    .build();
+            run(client, executor, request, concurrency, warmupSeconds);
+            LatencyStats stats = run(client, executor, request, concurrency, durationSeconds);
+            System.out.println(stats.format(Duration.ofSeconds(durationSeconds).toNanos()));
+        }
+        executor.shutdown();
+    }
+
+    private static int login(HttpClient client, String baseUrl, String loginName, String password) throws Exception {
+        String body = "{\"loginName\":\"" + loginName + "\",\"password\":\"" + password + "\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("登录失败: HTTP " + response.statusCode() + " " + response.body());
+        }
+        Matcher matcher = USER_ID.matcher(response.body());
+        if (!matcher.find()) {
+            throw new IllegalStateException("登录响应中没有用户ID: " + response.body());
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    /**
+     * 以固定并发持续发送同一请求
+     */
+    private static LatencyStats run(HttpClient client, ExecutorService executor, HttpRequest request,
+                                    int concurrency, int seconds) throws Exception {
+        LatencyStats stats = new LatencyStats(request.uri().getPath());
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        List<Future<?>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        stats.record(System.nanoTime() - start, response.statusCode() < 400);
+                    } catch (Exception e) {
+                        stats.record(System.nanoTime() - start, false);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return stats;
+    }
+}
@@ -11,11 +11,14 @@ SET FOREIGN_KEY_CHECKS = 0;
 DROP TABLE IF EXISTS order_items;
 DROP TABLE IF EXISTS orders;
 DROP TABLE IF EXISTS blanket_orders;
+DROP TABLE IF EXISTS daily_item_sales;
 DROP TABLE IF EXISTS menu_items;
 DROP TABLE IF EXISTS menus;
 DROP TABLE IF EXISTS recipes;
 DROP TABLE IF EXISTS users;
 DROP TABLE IF EXISTS system_config;
+DROP TABLE IF EXISTS revoked_tokens;
+DROP TABLE IF EXISTS revoked_user_tokens;
 SET FOREIGN_KEY_CHECKS = 1;
 
 -- 3. 建表
@@ -86,9 +89,10 @@ CREATE TABLE orders (
                         meal_date    DATE         NOT NULL,
                         total_price  DECIMAL(10,2) NOT NULL DEFAULT 0,
                         created_at   DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                        idempotency_key VARCHAR(64) DEFAULT NULL COMMENT '创建订单的请求携带的 Idempotency-Key',
                         CONSTRAINT fk_orders_user
                             FOREIGN KEY (user_id) REFERENCES users(id),
-                        INDEX idx_orders_user_date (user_id, meal_date),
+                        UNIQUE KEY uk_orders_user_date (user_id, meal_date),
                         INDEX idx_orders_meal_date (meal_date)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='员工订单';
 
@@ -116,21 +120,52 @@ CREATE TABLE blanket_orders (
                                 id             INT AUTO_INCREMENT PRIMARY KEY,
                                 date           DATE         NOT NULL,
                                 item_name      VARCHAR(100) NOT NULL,
-                                unit           VARCHAR(20)  DEFAULT NULL,
+                                unit           VARCHAR(20)  NOT NULL DEFAULT '',
                                 total_quantity INT          NOT NULL DEFAULT 0,
                                 price          DECIMAL(10,2) NOT NULL DEFAULT 0,
                                 subtotal       DECIMAL(10,2) NOT NULL DEFAULT 0,
+                                UNIQUE KEY uk_blanket_orders_item (date, item_name, unit, price),
                                 INDEX idx_blanket_orders_date (date),
                                 INDEX idx_blanket_orders_item (item_name)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='总括订单（按菜品汇总）';
 
+-- 每日菜品销售汇总表（财务报表使用）
+CREATE TABLE daily_item_sales (
+                                  id         INT AUTO_INCREMENT PRIMARY KEY,
+                                  meal_date  DATE          NOT NULL,
+                                  user_id    INT           NOT NULL,
+                                  name       VARCHAR(100)  NOT NULL,
+                                  unit       VARCHAR(20)   NOT NULL DEFAULT '',
+                                  price      DECIMAL(10,2) NOT NULL DEFAULT 0,
+                                  qty        INT           NOT NULL DEFAULT 0,
+                                  amount     DECIMAL(10,2) NOT NULL DEFAULT 0,
+                                  UNIQUE KEY uk_daily_item_sales (meal_date, user_id, name, unit, price),
+                                  INDEX idx_daily_item_sales_user (user_id, meal_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每日菜品销售汇总（按用户）';
+
 -- 系统配置表
 CREATE TABLE system_config (
                                id                   INT PRIMARY KEY CHECK (id = 1),
                                order_deadline       VARCHAR(5) NOT NULL DEFAULT '09:00',
-                               delivery_start_time  VARCHAR(5) NOT NULL DEFAULT '11:30'
+                               delivery_start_time  VARCHAR(5) NOT NULL DEFAULT '11:30',
+                               version              BIGINT     NOT NULL DEFAULT 0 COMMENT '每次修改加一，各节点据此刷新本地缓存'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='系统时间配置';
 
+-- 已吊销的登录令牌（无状态令牌模式，只保留到令牌过期）
+CREATE TABLE revoked_tokens (
+                                token_id    VARCHAR(32) PRIMARY KEY,
+                                expires_at  DATETIME    NOT NULL,
+                                revoked_at  DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                INDEX idx_revoked_tokens_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='已吊销的登录令牌';
+
+CREATE TABLE revoked_user_tokens (
+                                user_id         INT         PRIMARY KEY,
+                                revoked_before  DATETIME(3) NOT NULL COMMENT '此时间之前登录的令牌均已失效',
+                                expires_at      DATETIME    NOT NULL,
+                                INDEX idx_revoked_user_tokens_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='按用户吊销的登录令牌（删除用户、角色或密码变更）';
+
 INSERT INTO system_config (id, order_deadline, delivery_start_time)
 VALUES (1, '09:00', '11:30')
     ON DUPLICATE KEY UPDATE
@@ -143,6 +178,7 @@ SET FOREIGN_KEY_CHECKS = 0;
 TRUNCATE TABLE order_items;
 TRUNCATE TABLE orders;
 TRUNCATE TABLE blanket_orders;
+TRUNCATE TABLE daily_item_sales;
 TRUNCATE TABLE menu_items;
 TRUNCATE TABLE menus;
 TRUNCATE TABLE recipes;
@@ -262,12 +298,18 @@ DELETE FROM blanket_orders WHERE date = @d;
 
 DELETE FROM blanket_orders WHERE date = @d;
 
+INSERT INTO daily_item_sales (meal_date, user_id, name, unit, price, qty, amount)
+SELECT o.meal_date, o.user_id, oi.name, COALESCE(oi.unit, ''), oi.price, SUM(oi.quantity), SUM(oi.subtotal)
+FROM orders o
+    JOIN order_items oi ON o.id = oi.order_id
+GROUP BY o.meal_date, o.user_id, oi.name, COALESCE(oi.unit, ''), oi.price;
+
 
 INSERT INTO blanket_orders (date, item_name, unit, total_quantity, price, subtotal)
 SELECT
     @d                         AS date,
     mi.name                    AS item_name,
-    mi.unit                    AS unit,
+    COALESCE(mi.unit, '')      AS unit,
     SUM(oi.quantity)           AS total_quantity,
     mi.price                   AS price,
     SUM(oi.quantity) * mi.price AS subtotal
@@ -275,7 +317,7 @@ FROM order_items oi
     JOIN menu_items mi ON oi.menu_item_id = mi.id
     JOIN orders o      ON oi.order_id = o.id
 WHERE o.meal_date = @d
-GROUP BY mi.name, mi.unit, mi.price;
+GROUP BY mi.name, COALESCE(mi.unit, ''), mi.price;
 
 USE catering_system;
 
@@ -283,4 +325,123 @@ USE catering_system;
 ALTER TABLE orders
     ADD COLUMN work_location VARCHAR(100) DEFAULT NULL
     COMMENT '工位信息（创建订单时保存）'
-AFTER phone;
\ No newline at end of file
+AFTER phone;
+
+-- 总括订单改为下单时增量维护（按 日期+菜名+单位+单价 upsert），已有库执行以下迁移
+-- （在停止旧版本、启动新版本之前执行，保证部署前已下的订单都计入汇总）
+UPDATE blanket_orders SET unit = '' WHERE unit IS NULL;
+
+-- 同一 日期+菜名+单位+单价 的重复行只保留 id 最小的一行，否则无法添加唯一键；数量和金额由下面的补录重新计算
+DELETE b1 FROM blanket_orders b1
+    JOIN blanket_orders b2
+        ON b1.date = b2.date
+            AND b1.item_name = b2.item_name
+            AND b1.unit = b2.unit
+            AND b1.price = b2.price
+            AND b1.id > b2.id;
+
+ALTER TABLE blanket_orders
+    MODIFY COLUMN unit VARCHAR(20) NOT NULL DEFAULT '',
+    ADD UNIQUE KEY uk_blanket_orders_item (date, item_name, unit, price);
+
+-- 按订单表补录全部日期的总括订单（与 BlanketOrderDAO.generateBlanketOrder 的汇总口径一致），
+-- 未点过“生成”的日期（包括当天部署前已下的订单）也能在厨房视图和导出中看到完整汇总
+INSERT INTO blanket_orders (date, item_name, unit, total_quantity, price, subtotal)
+SELECT o.meal_date, oi.name, COALESCE(oi.unit, ''), SUM(oi.quantity), oi.price, SUM(oi.subtotal)
+FROM orders o
+    JOIN order_items oi ON o.id = oi.order_id
+GROUP BY o.meal_date, oi.name, COALESCE(oi.unit, ''), oi.price
+ON DUPLICATE KEY UPDATE total_quantity = VALUES(total_quantity), subtotal = VALUES(subtotal);
+
+-- 财务报表改为读取每日销售汇总表，已有库执行以下迁移并补录历史数据
+CREATE TABLE IF NOT EXISTS daily_item_sales (
+                                  id         INT AUTO_INCREMENT PRIMARY KEY,
+                                  meal_date  DATE          NOT NULL,
+                                  user_id    INT           NOT NULL,
+                                  name       VARCHAR(100)  NOT NULL,
+                                  unit       VARCHAR(20)   NOT NULL DEFAULT '',
+                                  price      DECIMAL(10,2) NOT NULL DEFAULT 0,
+                                  qty        INT           NOT NULL DEFAULT 0,
+                                  amount     DECIMAL(10,2) NOT NULL DEFAULT 0,
+                                  UNIQUE KEY uk_daily_item_sales (meal_date, user_id, name, unit, price),
+                                  INDEX idx_daily_item_sales_user (user_id, meal_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='每日菜品销售汇总（按用户）';
+
+INSERT INTO daily_item_sales (meal_date, user_id, name, unit, price, qty, amount)
+SELECT o.meal_date, o.user_id, oi.name, COALESCE(oi.unit, ''), oi.price, SUM(oi.quantity), SUM(oi.subtotal)
+FROM orders o
+    JOIN order_items oi ON o.id = oi.order_id
+GROUP BY o.meal_date, o.user_id, oi.name, COALESCE(oi.unit, ''), oi.price
+ON DUPLICATE KEY UPDATE qty = VALUES(qty), amount = VALUES(amount);
+
+-- 系统配置改为持久化并由各节点轮询 version 同步，已有库执行以下迁移
+ALTER TABLE system_config
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0
+    COMMENT '每次修改加一，各节点据此刷新本地缓存';
+
+-- 每个员工每天只能有一张订单，由唯一约束保证并发重复提交不会产生重复订单，已有库执行以下迁移
+-- 先清理已有的重复订单：同一员工同一天只保留 id 最小（最先提交）的一张，删除其余订单及其订单项，
+-- 再按剩余订单重建受影响日期的总括订单和每日销售汇总，否则无法添加唯一键
+CREATE TEMPORARY TABLE tmp_duplicate_orders AS
+SELECT DISTINCT o.id, o.meal_date
+FROM orders o
+    JOIN orders kept ON kept.user_id = o.user_id
+        AND kept.meal_date = o.meal_date
+        AND kept.id < o.id;
+
+CREATE TEMPORARY TABLE tmp_duplicate_dates AS
+SELECT DISTINCT meal_date FROM tmp_duplicate_orders;
+
+DELETE oi FROM order_items oi
+    JOIN tmp_duplicate_orders d ON oi.order_id = d.id;
+
+DELETE o FROM orders o
+    JOIN tmp_duplicate_orders d ON o.id = d.id;
+
+DELETE b FROM blanket_orders b
+    JOIN tmp_duplicate_dates d ON b.date = d.meal_date;
+
+INSERT INTO blanket_orders (date, item_name, unit, total_quantity, price, subtotal)
+SELECT o.meal_date, oi.name, COALESCE(oi.unit, ''), SUM(oi.quantity), oi.price, SUM(oi.subtotal)
+FROM orders o
+    JOIN order_items oi ON o.id = oi.order_id
+    JOIN tmp_duplicate_dates d ON o.meal_date = d.meal_date
+GROUP BY o.meal_date, oi.name, COALESCE(oi.unit, ''), oi.price;
+
+DELETE s FROM daily_item_sales s
+    JOIN tmp_duplicate_dates d ON s.meal_date = d.meal_date;
+
+INSERT INTO daily_item_sales (meal_date, user_id, name, unit, price, qty, amount)
+SELECT o.meal_date, o.user_id, oi.name, COALESCE(oi.unit, ''), oi.price, SUM(oi.quantity), SUM(oi.subtotal)
+FROM orders o
+    JOIN order_items oi ON o.id = oi.order_id
+    JOIN tmp_duplicate_dates d ON o.meal_date = d.meal_date
+GROUP BY o.meal_date, o.user_id, oi.name, COALESCE(oi.unit, ''), oi.price;
+
+DROP TEMPORARY TABLE tmp_duplicate_orders;
+DROP TEMPORARY TABLE tmp_duplicate_dates;
+
+ALTER TABLE orders
+    DROP INDEX idx_orders_user_date,
+    ADD UNIQUE KEY uk_orders_user_date (user_id, meal_date);
+
+-- 只有携带相同 Idempotency-Key 的重复提交才视为重试并返回原订单，已有库执行以下迁移
+ALTER TABLE orders
+    ADD COLUMN idempotency_key VARCHAR(64) DEFAULT NULL
+    COMMENT '创建订单的请求携带的 Idempotency-Key';
+
+-- 无状态令牌模式（catering.auth.mode=token）的吊销列表，已有库执行以下迁移
+CREATE TABLE IF NOT EXISTS revoked_tokens (
+                                token_id    VARCHAR(32) PRIMARY KEY,
+                                expires_at  DATETIME    NOT NULL,
+                                revoked_at  DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                INDEX idx_revoked_tokens_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='已吊销的登录令牌';
+
+-- 删除用户、角色或密码变更时吊销该用户的全部令牌，已有库执行以下迁移
+CREATE TABLE IF NOT EXISTS revoked_user_tokens (
+                                user_id         INT         PRIMARY KEY,
+                                revoked_before  DATETIME(3) NOT NULL COMMENT '此时间之前登录的令牌均已失效',
+                                expires_at      DATETIME    NOT NULL,
+                                INDEX idx_revoked_user_tokens_expires (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='按用户吊销的登录令牌（删除用户、角色或密码变更）';
@@ -1,18 +1,36 @@
 package com.enterprise.catering.config;
 
+import com.enterprise.catering.model.User;
+import com.enterprise.catering.service.AuthTokenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
 
+import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 
 /**
  * 认证拦截器：验证用户是否已登录
+ * - session 模式（默认）：检查 HttpSession 中的用户
+ * - token 模式：校验请求携带的签名令牌（Authorization: Bearer 或 Cookie），不创建也不读取 Session
+ * 两种模式下都把当前用户ID和角色放入请求属性，供后续处理使用。
  */
 @Component
 public class AuthInterceptor implements HandlerInterceptor {
 
+    public static final String USER_ID_ATTRIBUTE = "authUserId";
+    public static final String USER_ROLE_ATTRIBUTE = "authUserRole";
+    public static final String TOKEN_COOKIE = "CATERING_TOKEN";
+    // 续签后的新令牌通过该响应头返回给使用 Authorization 头的客户端
+    public static final String TOKEN_HEADER = "X-Auth-Token";
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
     // 不需要认证的路径
     private static final String[] PUBLIC_PATHS = {
         "/api/auth/login",
@@ -21,27 +39,79 @@ public class AuthInterceptor implements HandlerInterceptor {
         "/uploads/"
     };
 
+    @Autowired
+    private AuthTokenService authTokenService;
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         String path = request.getRequestURI();
-        
+
         // 检查是否为公开路径
         for (String publicPath : PUBLIC_PATHS) {
             if (path.startsWith(publicPath)) {
                 return true;
             }
         }
-        
+
+        if (authTokenService.isTokenMode()) {
+            AuthTokenService.TokenClaims claims = authTokenService.verify(resolveToken(request));
+            if (claims == null) {
+                return unauthorized(response);
+            }
+            request.setAttribute(USER_ID_ATTRIBUTE, claims.userId());
+            request.setAttribute(USER_ROLE_ATTRIBUTE, claims.role());
+            // 滑动过期：剩余有效期不足一半时签发新令牌，效果与 Session 的空闲超时一致；
+            // 登录超过最长会话时间后不再续签
+            if (claims.needsRenewal(authTokenService.getTtlSeconds())) {
+                String renewed = authTokenService.renew(claims);
+                if (renewed != null) {
+                    writeTokenCookie(response, renewed, authTokenService.getTtlSeconds());
+                    response.setHeader(TOKEN_HEADER, renewed);
+                }
+            }
+            return true;
+        }
+
         // 检查Session
         HttpSession session = request.getSession(false);
         if (session == null || session.getAttribute("user") == null) {
-            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-            response.setContentType("application/json;charset=UTF-8");
-            response.getWriter().write("{\"error\":\"未登录或登录已过期，请重新登录\"}");
-            return false;
+            return unauthorized(response);
         }
-        
+        User user = (User) session.getAttribute("user");
+        request.setAttribute(USER_ID_ATTRIBUTE, user.getId());
+        request.setAttribute(USER_ROLE_ATTRIBUTE, user.getRole());
         return true;
     }
-}
 
+    /**
+     * 从 Authorization 头或 Cookie 中取令牌
+     */
+    public static String resolveToken(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER_PREFIX)) {
+            return authorization.substring(BEARER_PREFIX.length()).trim();
+        }
+        Cookie cookie = WebUtils.getCookie(request, TOKEN_COOKIE);
+        return cookie != null ? cookie.getValue() : null;
+    }
+
+    /**
+     * 写入令牌 Cookie，maxAgeSeconds 为 0 时删除
+     */
+    public static void writeTokenCookie(HttpServletResponse response, String token, long maxAgeSeconds) {
+        ResponseCookie cookie = ResponseCookie.from(TOKEN_COOKIE, token)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .path("/")
+                .maxAge(maxAgeSeconds)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private static boolean unauthorized(HttpServletResponse response) throws Exception {
+        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write("{\"error\":\"未登录或登录已过期，请重新登录\"}");
+        return false;
+    }
+}
@@ -0,0 +1,103 @@
+package com.enterprise.catering.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * DAO 方法级监控：对所有 @Repository 的公共方法记录
+ * - catering.dao.calls    : 耗时（Timer，按 dao / method / outcome 区分）
+ * - catering.dao.rows     : 返回行数（集合大小、更新行数，单个对象记 1）
+ * - catering.dao.failures : 失败次数
+ * 许多 DAO 方法会捕获异常后返回空结果，因此 SQL 异常由 InstrumentedJdbcTemplate 另行标记，
+ * 即使异常被 DAO 吞掉也计为失败。
+ */
+@Aspect
+@Component
+public class DaoMetricsAspect {
+
+    // 当前线程正在执行的 DAO 调用中是否发生过 SQL 异常
+    private static final ThreadLocal<boolean[]> FAILED = ThreadLocal.withInitial(() -> new boolean[1]);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 由 InstrumentedJdbcTemplate 在转换 SQLException 时调用
+     */
+    static void markFailure() {
+        FAILED.get()[0] = true;
+    }
+
+    @Around("within(@org.springframework.stereotype.Repository *) && execution(public * *(..))")
+    public Object measure(ProceedingJoinPoint pjp) throws Throwable {
+        String dao = pjp.getSignature().getDeclaringType().getSimpleName();
+        String method = pjp.getSignature().getName();
+
+        boolean[] failed = FAILED.get();
+        boolean outerFailed = failed[0];
+        failed[0] = false;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Object result = null;
+        Throwable error = null;
+        try {
+            result = pjp.proceed();
+            return result;
+        } catch (Throwable t) {
+            error = t;
+            throw t;
+        } finally {
+            boolean isFailure = error != null || failed[0];
+            failed[0] = outerFailed || isFailure;
+
+            sample.stop(Timer.builder("catering.dao.calls")
+                    .description("DAO 方法耗时")
+                    .tag("dao", dao)
+                    .tag("method", method)
+                    .tag("outcome", isFailure ? "error" : "success")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            if (isFailure) {
+                meterRegistry.counter("catering.dao.failures", "dao", dao, "method", method).increment();
+            } else {
+                DistributionSummary.builder("catering.dao.rows")
+                        .description("DAO 方法返回的行数")
+                        .tag("dao", dao)
+                        .tag("method", method)
+                        .register(meterRegistry)
+                        .record(rowCount(result));
+            }
+        }
+    }
+
+    private static int rowCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Integer count) {
+            return Math.max(count, 0);
+        }
+        if (result instanceof int[] counts) {
+            return counts.length;
+        }
+        return 1;
+    }
+}
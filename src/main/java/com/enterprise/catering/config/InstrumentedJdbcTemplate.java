@@ -0,0 +1,24 @@
+package com.enterprise.catering.config;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 所有 DAO 共用的 JdbcTemplate：SQL 异常在转换为 DataAccessException 时通知 DaoMetricsAspect，
+ * 使被 DAO 内部 catch 掉的失败也能计入 catering.dao.failures
+ */
+public class InstrumentedJdbcTemplate extends JdbcTemplate {
+
+    public InstrumentedJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected DataAccessException translateException(String task, String sql, SQLException ex) {
+        DaoMetricsAspect.markFailure();
+        return super.translateException(task, sql, ex);
+    }
+}
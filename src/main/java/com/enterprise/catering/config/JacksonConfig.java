@@ -0,0 +1,20 @@
+package com.enterprise.catering.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Jackson 配置：注册 Blackbird 模块，
+ * 用 LambdaMetafactory 生成的访问器替代反射调用 getter/setter，加快热点接口的序列化。
+ * Spring Boot 会自动把容器中的 Module Bean 注册到全局 ObjectMapper。
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
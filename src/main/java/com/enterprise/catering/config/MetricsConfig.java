@@ -0,0 +1,19 @@
+package com.enterprise.catering.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * 监控相关配置：以 InstrumentedJdbcTemplate 替换 Spring Boot 默认的 JdbcTemplate
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new InstrumentedJdbcTemplate(dataSource);
+    }
+}
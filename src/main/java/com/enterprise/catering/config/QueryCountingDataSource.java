@@ -0,0 +1,128 @@
+package com.enterprise.catering.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 统计 SQL 执行次数与耗时的 DataSource 包装：
+ * Connection 与 Statement 用动态代理包装，execute* / executeBatch 执行完成后交给 QueryMonitor 记录，
+ * 单条语句耗时超过 slowStatementMillis（大于 0 时）同时记为慢语句。
+ * 当前线程没有开启请求统计时直接返回原始连接，不产生额外开销。
+ */
+public class QueryCountingDataSource extends DelegatingDataSource {
+
+    private final long slowStatementNanos;
+
+    public QueryCountingDataSource(DataSource targetDataSource, long slowStatementMillis) {
+        super(targetDataSource);
+        this.slowStatementNanos = slowStatementMillis > 0
+                ? TimeUnit.MILLISECONDS.toNanos(slowStatementMillis) : Long.MAX_VALUE;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private Connection wrap(Connection connection) {
+        if (!QueryMonitor.isActive()) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection, slowStatementNanos));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final long slowStatementNanos;
+
+        ConnectionHandler(Connection target, long slowStatementNanos) {
+            this.target = target;
+            this.slowStatementNanos = slowStatementNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "unwrap":
+                    if (args[0] == Connection.class) {
+                        return target;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            Object result = QueryCountingDataSource.invoke(target, method, args);
+            if (result instanceof Statement statement) {
+                // prepareStatement / prepareCall 的 SQL 在创建时确定，createStatement 的 SQL 在执行时传入
+                String sql = (args != null && args.length > 0 && args[0] instanceof String s) ? s : null;
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(QueryCountingDataSource.class.getClassLoader(),
+                        new Class<?>[]{type}, new StatementHandler(statement, sql, slowStatementNanos));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final long slowStatementNanos;
+
+        StatementHandler(Statement target, String preparedSql, long slowStatementNanos) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.slowStatementNanos = slowStatementNanos;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("equals".equals(method.getName())) {
+                return proxy == args[0];
+            }
+            if ("hashCode".equals(method.getName())) {
+                return System.identityHashCode(proxy);
+            }
+            if (!method.getName().startsWith("execute")) {
+                return QueryCountingDataSource.invoke(target, method, args);
+            }
+            String sql = (args != null && args.length > 0 && args[0] instanceof String s) ? s : preparedSql;
+            long start = System.nanoTime();
+            try {
+                return QueryCountingDataSource.invoke(target, method, args);
+            } finally {
+                long nanos = System.nanoTime() - start;
+                QueryMonitor.record(sql, nanos, nanos > slowStatementNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.enterprise.catering.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * 把 Spring Boot 创建的主数据源（bean 名 dataSource）包装为 QueryCountingDataSource。
+ * 原始 HikariDataSource 仍可通过 unwrap 取得，连接池指标不受影响。
+ */
+@Component
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    @Value("${catering.query-monitor.slow-statement-ms:500}")
+    private long slowStatementMillis;
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (DATA_SOURCE_BEAN.equals(beanName) && bean instanceof DataSource dataSource
+                && !(bean instanceof QueryCountingDataSource)) {
+            return new QueryCountingDataSource(dataSource, slowStatementMillis);
+        }
+        return bean;
+    }
+}
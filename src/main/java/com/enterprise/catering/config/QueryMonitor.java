@@ -0,0 +1,111 @@
+package com.enterprise.catering.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 请求级 SQL 统计：由 QueryMonitorFilter 在请求开始时开启，QueryCountingDataSource 在每条语句执行后记录。
+ * 不在请求线程中执行的语句（定时任务、异步写线程、流式导出）不做统计。
+ */
+public final class QueryMonitor {
+
+    private static final ThreadLocal<Stats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bIN\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern VALUES_LIST = Pattern.compile(
+            "(\\((?:\\s*\\?\\s*,?)+\\))(?:\\s*,\\s*\\((?:\\s*\\?\\s*,?)+\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private QueryMonitor() {
+    }
+
+    static Stats begin() {
+        Stats stats = new Stats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * 记录一条已执行的语句，slow 表示单条耗时超过慢语句阈值
+     */
+    static void record(String sql, long nanos, boolean slow) {
+        Stats stats = CURRENT.get();
+        if (stats != null) {
+            stats.add(sql != null ? shapeOf(sql) : "<unknown>", nanos, slow);
+        }
+    }
+
+    /**
+     * SQL 形状：去掉字面量、合并 IN 列表与多行 VALUES，使只有参数不同的语句归为一类
+     */
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("IN (?)");
+        shape = VALUES_LIST.matcher(shape).replaceAll("$1");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    /**
+     * 单个请求的统计结果（只在请求线程内访问）
+     */
+    public static final class Stats {
+        private int statementCount;
+        private long dbNanos;
+        private final Map<String, Integer> shapes = new HashMap<>();
+        private final List<SlowStatement> slowStatements = new ArrayList<>();
+
+        private void add(String shape, long nanos, boolean slow) {
+            statementCount++;
+            dbNanos += nanos;
+            shapes.merge(shape, 1, Integer::sum);
+            if (slow) {
+                slowStatements.add(new SlowStatement(shape, nanos));
+            }
+        }
+
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        public long getDbNanos() {
+            return dbNanos;
+        }
+
+        public List<SlowStatement> getSlowStatements() {
+            return slowStatements;
+        }
+
+        /**
+         * 重复次数最多的 SQL 形状，没有语句时返回 null
+         */
+        public Map.Entry<String, Integer> getMostRepeated() {
+            Map.Entry<String, Integer> top = null;
+            for (Map.Entry<String, Integer> entry : shapes.entrySet()) {
+                if (top == null || entry.getValue() > top.getValue()) {
+                    top = entry;
+                }
+            }
+            return top;
+        }
+    }
+
+    /**
+     * 单条耗时超过阈值的语句
+     */
+    public record SlowStatement(String shape, long nanos) {
+    }
+}
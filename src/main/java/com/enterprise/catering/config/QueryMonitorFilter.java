@@ -0,0 +1,101 @@
+package com.enterprise.catering.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求级 SQL 监控：统计每个 HTTP 请求执行的语句数与数据库耗时，
+ * 语句数超过 max-statements，或同一 SQL 形状重复超过 max-repeats 次（典型的 N+1 查询），
+ * 或单条语句耗时超过 slow-statement-ms（由 QueryCountingDataSource 记录）时输出告警并计数。
+ * 指标：
+ * - catering.request.statements : 每个请求的语句数（按 uri 模板区分）
+ * - catering.request.db.time    : 每个请求的数据库总耗时
+ * - catering.request.query.alarms : 告警次数（type = statement_count / repeated_sql / slow_statement）
+ */
+@Component
+public class QueryMonitorFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${catering.query-monitor.enabled:true}")
+    private boolean enabled;
+    @Value("${catering.query-monitor.max-statements:20}")
+    private int maxStatements;
+    @Value("${catering.query-monitor.max-repeats:5}")
+    private int maxRepeats;
+    @Value("${catering.query-monitor.slow-statement-ms:500}")
+    private long slowStatementMillis;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryMonitor.Stats stats = QueryMonitor.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryMonitor.end();
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryMonitor.Stats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("catering.request.statements")
+                .description("每个请求执行的 SQL 语句数")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getStatementCount());
+        Timer.builder("catering.request.db.time")
+                .description("每个请求的数据库总耗时")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getDbNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatementCount() > maxStatements) {
+            meterRegistry.counter("catering.request.query.alarms",
+                    "method", method, "uri", uri, "type", "statement_count").increment();
+            System.err.println("SQL 语句过多: " + method + " " + uri + " 执行了 " + stats.getStatementCount()
+                    + " 条语句（阈值 " + maxStatements + "），数据库耗时 "
+                    + TimeUnit.NANOSECONDS.toMillis(stats.getDbNanos()) + "ms");
+        }
+        Map.Entry<String, Integer> repeated = stats.getMostRepeated();
+        if (repeated != null && repeated.getValue() > maxRepeats) {
+            meterRegistry.counter("catering.request.query.alarms",
+                    "method", method, "uri", uri, "type", "repeated_sql").increment();
+            System.err.println("疑似 N+1 查询: " + method + " " + uri + " 重复执行 " + repeated.getValue()
+                    + " 次（阈值 " + maxRepeats + "）: " + repeated.getKey());
+        }
+        for (QueryMonitor.SlowStatement slow : stats.getSlowStatements()) {
+            meterRegistry.counter("catering.request.query.alarms",
+                    "method", method, "uri", uri, "type", "slow_statement").increment();
+            System.err.println("SQL 执行缓慢: " + method + " " + uri + " 单条语句耗时 "
+                    + TimeUnit.NANOSECONDS.toMillis(slow.nanos()) + "ms（阈值 " + slowStatementMillis + "ms）: "
+                    + slow.shape());
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.enterprise.catering.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限流拦截器（在 RoleInterceptor 之后执行）：
+ * 报表、导出、总括订单重建等重查询接口按 @RateLimited 分组，每组一个全局令牌桶，
+ * 每个用户在每组另有一个令牌桶；任一桶没有令牌时返回 429 并给出 Retry-After（秒），
+ * 被拒绝的请求不消耗另一个桶的令牌。
+ * 令牌桶以 GCRA 形式实现：每个桶只有一个 AtomicLong（理论到达时间），CAS 更新，无锁。
+ * 指标 catering.rate_limit.rejections（group, scope = user / global）。
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor, SmartInitializingSingleton {
+
+    // 空闲超过该时长的用户令牌桶已回满，可以回收
+    private static final long IDLE_EVICT_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${catering.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    private volatile Map<Method, Group> groupsByMethod = Collections.emptyMap();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<String, Group> groups = new HashMap<>();
+        Map<Method, Group> compiled = new HashMap<>();
+        for (RequestMappingHandlerMapping mapping : applicationContext.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                Method method = handlerMethod.getMethod();
+                RateLimited rule = AnnotatedElementUtils.findMergedAnnotation(method, RateLimited.class);
+                if (rule == null) {
+                    rule = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RateLimited.class);
+                }
+                if (rule != null) {
+                    compiled.put(method, groups.computeIfAbsent(rule.value(), this::createGroup));
+                }
+            }
+        }
+        groupsByMethod = Collections.unmodifiableMap(compiled);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!enabled || !(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Group group = groupsByMethod.get(handlerMethod.getMethod());
+        if (group == null) {
+            return true;
+        }
+        long now = System.nanoTime();
+
+        // 先取用户令牌（超额的用户不消耗全局令牌），全局桶拒绝时退还用户令牌，被拒绝的请求不计入任何一个桶
+        TokenBucket userBucket = null;
+        Object userId = request.getAttribute(AuthInterceptor.USER_ID_ATTRIBUTE);
+        if (userId instanceof Integer) {
+            userBucket = group.userBuckets.computeIfAbsent((Integer) userId,
+                    id -> new TokenBucket(group.userCapacity, group.userPerMinute, now));
+            long wait = userBucket.tryAcquire(now);
+            if (wait > 0) {
+                return reject(response, group, "user", wait);
+            }
+        }
+        long wait = group.global.tryAcquire(now);
+        if (wait > 0) {
+            if (userBucket != null) {
+                userBucket.release();
+            }
+            return reject(response, group, "global", wait);
+        }
+        return true;
+    }
+
+    /**
+     * 回收长时间未使用（令牌已回满）的用户令牌桶
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (Group group : groupsByMethod.values()) {
+            group.userBuckets.values().removeIf(bucket -> bucket.idleSince(now) > IDLE_EVICT_NANOS);
+        }
+    }
+
+    private boolean reject(HttpServletResponse response, Group group, String scope, long waitNanos) throws Exception {
+        meterRegistry.counter("catering.rate_limit.rejections", "group", group.name, "scope", scope).increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(429);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write("{\"error\":\"请求过于频繁，请 " + retryAfterSeconds + " 秒后再试\"}");
+        return false;
+    }
+
+    private Group createGroup(String name) {
+        String prefix = "catering.rate-limit.groups." + name + ".";
+        int userCapacity = environment.getProperty(prefix + "user-capacity", Integer.class, 5);
+        int userPerMinute = environment.getProperty(prefix + "user-per-minute", Integer.class, 10);
+        int globalCapacity = environment.getProperty(prefix + "global-capacity", Integer.class, 50);
+        int globalPerMinute = environment.getProperty(prefix + "global-per-minute", Integer.class, 300);
+        return new Group(name, userCapacity, userPerMinute,
+                new TokenBucket(globalCapacity, globalPerMinute, System.nanoTime()));
+    }
+
+    private static class Group {
+        private final String name;
+        private final int userCapacity;
+        private final int userPerMinute;
+        private final TokenBucket global;
+        private final ConcurrentHashMap<Integer, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+
+        Group(String name, int userCapacity, int userPerMinute, TokenBucket global) {
+            this.name = name;
+            this.userCapacity = userCapacity;
+            this.userPerMinute = userPerMinute;
+            this.global = global;
+        }
+    }
+
+    /**
+     * 令牌桶（GCRA）：容量 capacity，每分钟补充 perMinute 个令牌。
+     * 只记录“理论到达时间” tat：tat 超前当前时间不超过 (capacity - 1) 个补充间隔时允许通过，并把 tat 推后一个间隔。
+     */
+    static class TokenBucket {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLong tat;
+
+        TokenBucket(int capacity, int perMinute, long now) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.burstNanos = intervalNanos * (Math.max(1, capacity) - 1);
+            this.tat = new AtomicLong(now);
+        }
+
+        /**
+         * 取一个令牌：成功返回 0，否则返回需要等待的纳秒数
+         */
+        long tryAcquire(long now) {
+            while (true) {
+                long current = tat.get();
+                long start = Math.max(current, now);
+                long ahead = start - now;
+                if (ahead > burstNanos) {
+                    return ahead - burstNanos;
+                }
+                if (tat.compareAndSet(current, start + intervalNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * 退还 tryAcquire 成功取得的一个令牌（tat 提前一个间隔）
+         */
+        void release() {
+            tat.addAndGet(-intervalNanos);
+        }
+
+        long idleSince(long now) {
+            return now - tat.get();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.enterprise.catering.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明接口所属的限流分组（如 report / export / kitchen-generate）。
+ * 可标注在控制器类或方法上，方法上的声明优先；同组接口共享令牌桶，
+ * 限额在 catering.rate-limit.groups.<分组>.* 中配置。
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RateLimited {
+
+    String value();
+}
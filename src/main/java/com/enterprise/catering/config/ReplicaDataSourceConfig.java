@@ -0,0 +1,59 @@
+package com.enterprise.catering.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 读写分离：配置了 catering.datasource.replica.url 时生效。
+ * - primaryDataSource : 主库连接池，沿用 spring.datasource.* 配置
+ * - replicaDataSource : 从库连接池，catering.datasource.replica.*（hikari 参数在 catering.datasource.replica.hikari.*）
+ * - dataSource        : 对外的主数据源（LazyConnectionDataSourceProxy + ReplicaRoutingDataSource），
+ *                       JdbcTemplate、事务管理器都使用它
+ * 报表、列表、导出等只读查询通过 @Transactional(readOnly = true) 路由到从库。
+ */
+@Configuration
+@ConditionalOnProperty(name = "catering.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("catering.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${catering.datasource.replica.url}") String url,
+                                              @Value("${catering.datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${catering.datasource.replica.password:${spring.datasource.password}}") String password) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("catering-replica-pool");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 @Value("${catering.datasource.replica.retry-interval-ms:30000}") long retryIntervalMillis) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, retryIntervalMillis));
+    }
+}
@@ -0,0 +1,58 @@
+package com.enterprise.catering.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * 读写分离数据源：只读事务（@Transactional(readOnly = true)）使用从库，其余使用主库。
+ * 从库获取连接失败时回退到主库，并在 retryIntervalMillis 内不再尝试从库。
+ * 需由 LazyConnectionDataSourceProxy 包装，保证取连接时事务的只读标记已经设置。
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long retryIntervalMillis;
+    // 从库不可用期间的截止时间（毫秒时间戳）
+    private volatile long replicaDownUntil;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long retryIntervalMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.retryIntervalMillis = retryIntervalMillis;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && System.currentTimeMillis() >= replicaDownUntil) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!REPLICA.equals(determineCurrentLookupKey())) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            replicaDownUntil = System.currentTimeMillis() + retryIntervalMillis;
+            System.err.println("从库连接失败，" + retryIntervalMillis + "ms 内只读查询改用主库: " + e.getMessage());
+            return primary.getConnection();
+        }
+    }
+}
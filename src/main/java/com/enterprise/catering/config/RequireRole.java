@@ -0,0 +1,20 @@
+package com.enterprise.catering.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明接口允许访问的角色（manager / kitchen_chief / delivery_staff / finance / employee）。
+ * 可标注在控制器类或方法上，方法上的声明优先；未标注的接口登录即可访问。
+ * 启动时由 RoleInterceptor 解析为按处理方法索引的角色位掩码表。
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequireRole {
+
+    String[] value();
+}
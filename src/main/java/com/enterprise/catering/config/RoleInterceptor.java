@@ -0,0 +1,131 @@
+package com.enterprise.catering.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 角色鉴权拦截器（在 AuthInterceptor 之后执行）：
+ * 启动时遍历所有 @RequestMapping 处理方法，把 @RequireRole 解析成 方法 -> 角色位掩码 的只读表；
+ * 请求时只做一次 HashMap 查找和一次位与运算，不解析注解、不分配对象。
+ */
+@Component
+public class RoleInterceptor implements HandlerInterceptor, SmartInitializingSingleton {
+
+    private static final int MANAGER = 1;
+    private static final int KITCHEN_CHIEF = 1 << 1;
+    private static final int DELIVERY_STAFF = 1 << 2;
+    private static final int FINANCE = 1 << 3;
+    private static final int EMPLOYEE = 1 << 4;
+
+    private static final String FORBIDDEN_MESSAGE = "当前角色无权访问该功能";
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    private volatile Map<Method, Integer> rules = Collections.emptyMap();
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Map<Method, Integer> compiled = new HashMap<>();
+        for (RequestMappingHandlerMapping mapping : applicationContext.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            for (HandlerMethod handlerMethod : mapping.getHandlerMethods().values()) {
+                Method method = handlerMethod.getMethod();
+                RequireRole rule = AnnotatedElementUtils.findMergedAnnotation(method, RequireRole.class);
+                if (rule == null) {
+                    rule = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequireRole.class);
+                }
+                if (rule != null) {
+                    compiled.put(method, toMask(rule.value(), method));
+                }
+            }
+        }
+        rules = Collections.unmodifiableMap(compiled);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Integer required = rules.get(handlerMethod.getMethod());
+        if (required == null) {
+            return true;
+        }
+        Object role = request.getAttribute(AuthInterceptor.USER_ROLE_ATTRIBUTE);
+        if (role instanceof String && (required & roleBit((String) role)) != 0) {
+            return true;
+        }
+        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write("{\"error\":\"" + FORBIDDEN_MESSAGE + "\"}");
+        return false;
+    }
+
+    /**
+     * 供接口内部做数据级鉴权（如“本人或经理、财务可查看”）时判断当前角色
+     */
+    public static boolean hasAnyRole(String role, String... allowed) {
+        if (role == null) {
+            return false;
+        }
+        int bit = roleBit(role);
+        for (String candidate : allowed) {
+            if ((bit & roleBit(candidate)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 接口内部数据级鉴权失败时返回的 403，响应体与拦截器拒绝时相同
+     */
+    public static ResponseEntity<Map<String, String>> forbidden() {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", FORBIDDEN_MESSAGE));
+    }
+
+    private static int toMask(String[] roles, Method method) {
+        int mask = 0;
+        for (String role : roles) {
+            int bit = roleBit(role);
+            if (bit == 0) {
+                // 角色名拼写错误时启动失败，避免接口在运行时被意外拒绝或放行
+                throw new IllegalStateException("@RequireRole 中的未知角色 " + role + ": " + method);
+            }
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    private static int roleBit(String role) {
+        switch (role) {
+            case "manager":
+                return MANAGER;
+            case "kitchen_chief":
+                return KITCHEN_CHIEF;
+            case "delivery_staff":
+                return DELIVERY_STAFF;
+            case "finance":
+                return FINANCE;
+            case "employee":
+                return EMPLOYEE;
+            default:
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.enterprise.catering.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 虚拟线程“钉住”（pinning）诊断：
+ * 仅在开启虚拟线程（spring.threads.virtual.enabled=true）时生效，
+ * 通过 JFR 事件流订阅 jdk.VirtualThreadPinned，虚拟线程在 synchronized 块或本地方法中
+ * 阻塞超过阈值时打印阻塞位置，并标记是否发生在 MySQL 驱动 / JDBC 调用路径上。
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    // 打印的最大栈帧数
+    private static final int MAX_FRAMES = 12;
+
+    @Value("${catering.virtual-threads.pinning-threshold-ms:20}")
+    private long thresholdMillis;
+
+    private final AtomicLong pinnedCount = new AtomicLong();
+    private final AtomicLong jdbcPinnedCount = new AtomicLong();
+    private RecordingStream stream;
+
+    @PostConstruct
+    public void start() {
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT)
+                    .withThreshold(Duration.ofMillis(thresholdMillis))
+                    .withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::onPinned);
+            stream.startAsync();
+        } catch (Exception e) {
+            System.err.println("启动虚拟线程 pinning 监控失败: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    public long getPinnedCount() {
+        return pinnedCount.get();
+    }
+
+    public long getJdbcPinnedCount() {
+        return jdbcPinnedCount.get();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinnedCount.incrementAndGet();
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace != null ? stackTrace.getFrames() : List.of();
+
+        boolean inJdbc = false;
+        for (RecordedFrame frame : frames) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("com.mysql.") || type.startsWith("com.zaxxer.hikari.")) {
+                inJdbc = true;
+                break;
+            }
+        }
+        if (inJdbc) {
+            jdbcPinnedCount.incrementAndGet();
+        }
+
+        StringBuilder message = new StringBuilder();
+        message.append("虚拟线程被钉住 ").append(event.getDuration().toMillis()).append("ms");
+        if (inJdbc) {
+            message.append("（JDBC 驱动路径）");
+        }
+        int shown = Math.min(frames.size(), MAX_FRAMES);
+        for (int i = 0; i < shown; i++) {
+            RecordedFrame frame = frames.get(i);
+            message.append("\n    at ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        System.err.println(message);
+    }
+}
@@ -1,7 +1,10 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.AuthInterceptor;
 import com.enterprise.catering.dao.UserDAO;
 import com.enterprise.catering.model.User;
+import com.enterprise.catering.service.AuthService;
+import com.enterprise.catering.service.AuthTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -9,17 +12,23 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
-import java.util.HashMap;
-import java.util.Map;
 
 /**
  * 登录认证控制器：
- * 使用Session和Cookie进行用户认证管理
+ * 使用Session和Cookie进行用户认证管理；
+ * 登录后 Session 中的 User 即为当前用户的权威信息，后续请求不再查询 users 表。
+ * catering.auth.mode=token 时改为签发无状态令牌（写入 HttpOnly Cookie 并通过 X-Auth-Token 响应头返回），不创建 Session。
  */
 @RestController
 @RequestMapping("/api/auth")
 public class AuthController {
 
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
     @Autowired
     private UserDAO userDAO;
 
@@ -31,10 +40,17 @@ public class AuthController {
                 || request.getPassword() == null || request.getPassword().isEmpty()) {
             return ResponseEntity.badRequest().body("missing");
         }
-        User user = userDAO.authenticate(request.getLoginName(), request.getPassword());
+        User user = authService.authenticate(request.getLoginName(), request.getPassword());
         if (user == null) {
             return ResponseEntity.status(401).body("invalid");
         }
+
+        if (authTokenService.isTokenMode()) {
+            String token = authTokenService.issue(user.getId(), user.getRole());
+            AuthInterceptor.writeTokenCookie(httpResponse, token, authTokenService.getTtlSeconds());
+            httpResponse.setHeader(AuthInterceptor.TOKEN_HEADER, token);
+            return ResponseEntity.ok(UserInfo.of(user));
+        }
         
         // 创建Session并存储用户信息
         HttpSession session = httpRequest.getSession(true);
@@ -47,18 +63,23 @@ public class AuthController {
         session.setMaxInactiveInterval(30 * 60);
         
         // 返回用户信息（不包含敏感信息）
-        Map<String, Object> userInfo = new HashMap<>();
-        userInfo.put("id", user.getId());
-        userInfo.put("name", user.getName());
-        userInfo.put("role", user.getRole());
-        userInfo.put("phone", user.getPhone());
-        userInfo.put("workstation", user.getWorkstation());
-        
-        return ResponseEntity.ok(userInfo);
+        return ResponseEntity.ok(UserInfo.of(user));
     }
     
     @PostMapping("/logout")
-    public ResponseEntity<?> logout(HttpServletRequest request) {
+    public ResponseEntity<?> logout(HttpServletRequest request, HttpServletResponse response) {
+        if (authTokenService.isTokenMode()) {
+            AuthTokenService.TokenClaims claims = authTokenService.verify(AuthInterceptor.resolveToken(request));
+            if (claims != null) {
+                try {
+                    authTokenService.revoke(claims);
+                } catch (Exception e) {
+                    System.err.println("写入令牌吊销记录失败: " + e.getMessage());
+                }
+            }
+            AuthInterceptor.writeTokenCookie(response, "", 0);
+            return ResponseEntity.ok("logout_success");
+        }
         HttpSession session = request.getSession(false);
         if (session != null) {
             session.invalidate();
@@ -68,18 +89,30 @@ public class AuthController {
     
     @GetMapping("/current")
     public ResponseEntity<?> getCurrentUser(HttpServletRequest request) {
+        if (authTokenService.isTokenMode()) {
+            // 令牌只携带用户ID和角色，展示用的姓名、工位等在页面加载时查一次
+            AuthTokenService.TokenClaims claims = authTokenService.verify(AuthInterceptor.resolveToken(request));
+            User user = claims != null ? userDAO.findById(claims.userId()) : null;
+            if (user == null) {
+                return ResponseEntity.status(401).body("not_authenticated");
+            }
+            return ResponseEntity.ok(UserInfo.of(user));
+        }
         HttpSession session = request.getSession(false);
         if (session == null || session.getAttribute("user") == null) {
             return ResponseEntity.status(401).body("not_authenticated");
         }
         User user = (User) session.getAttribute("user");
-        Map<String, Object> userInfo = new HashMap<>();
-        userInfo.put("id", user.getId());
-        userInfo.put("name", user.getName());
-        userInfo.put("role", user.getRole());
-        userInfo.put("phone", user.getPhone());
-        userInfo.put("workstation", user.getWorkstation());
-        return ResponseEntity.ok(userInfo);
+        return ResponseEntity.ok(UserInfo.of(user));
+    }
+
+    /**
+     * 返回给前端的用户信息（不包含密码等敏感字段）
+     */
+    public record UserInfo(int id, String name, String role, String phone, String workstation) {
+        static UserInfo of(User user) {
+            return new UserInfo(user.getId(), user.getName(), user.getRole(), user.getPhone(), user.getWorkstation());
+        }
     }
 
     public static class LoginRequest {
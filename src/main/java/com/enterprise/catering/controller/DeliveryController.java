@@ -1,5 +1,6 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.RequireRole;
 import com.enterprise.catering.dao.OrderDAO;
 import com.enterprise.catering.dao.UserDAO;
 import com.enterprise.catering.model.Order;
@@ -10,8 +11,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
@@ -19,51 +19,28 @@ import java.util.*;
  */
 @RestController
 @RequestMapping("/api/delivery")
+@RequireRole({"manager", "delivery_staff"})
 public class DeliveryController {
 
     @Autowired
     private OrderDAO orderDAO;
     @Autowired
     private UserDAO userDAO;
-    private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
 
     @GetMapping("/orders")
     public ResponseEntity<?> listOrders(@RequestParam(required = false) String date) throws Exception {
         boolean canPrint = SystemTimeUtil.isDeliveryStartTimeReached();
-        Date deliveryDate = parseDateOrToday(date);
-        List<Order> orders = orderDAO.getOrdersByDate(deliveryDate);
+        LocalDate deliveryDay = SystemTimeUtil.parseDateOrToday(date);
+        Date deliveryDate = SystemTimeUtil.toDate(deliveryDay);
+        // 工位信息已在查询中补全（优先使用订单中保存的，如果没有则取用户表中的）
+        List<Order> orders = orderDAO.getOrdersWithWorkLocationByDate(deliveryDate);
 
-        // 为每个订单添加工位信息（优先使用订单中保存的，如果没有则从用户表获取）
-        List<Map<String, Object>> ordersWithWorkLocation = new ArrayList<>();
+        List<DeliveryOrderView> ordersWithWorkLocation = new ArrayList<>(orders.size());
         for (Order order : orders) {
-            Map<String, Object> orderMap = new HashMap<>();
-            orderMap.put("id", order.getId());
-            orderMap.put("userId", order.getUserId());
-            orderMap.put("userName", order.getUserName());
-            orderMap.put("phone", order.getPhone());
-            orderMap.put("orderTime", order.getOrderTime());
-            orderMap.put("mealDate", order.getMealDate());
-            orderMap.put("totalPrice", order.getTotalPrice());
-            orderMap.put("createdAt", order.getCreatedAt());
-            
-            // 优先使用订单中保存的工位信息，如果没有则从用户表获取
-            String workLocation = order.getWorkLocation();
-            if (workLocation == null || workLocation.isEmpty()) {
-                User user = userDAO.findById(order.getUserId());
-                if (user != null && user.getWorkstation() != null) {
-                    workLocation = user.getWorkstation();
-                }
-            }
-            orderMap.put("workLocation", workLocation);
-            
-            ordersWithWorkLocation.add(orderMap);
+            ordersWithWorkLocation.add(DeliveryOrderView.of(order, order.getWorkLocation()));
         }
-
-        Map<String, Object> resp = new HashMap<>();
-        resp.put("canPrint", canPrint);
-        resp.put("deliveryDate", sdf.format(deliveryDate));
-        resp.put("orders", ordersWithWorkLocation);
-        return ResponseEntity.ok(resp);
+        return ResponseEntity.ok(new DeliveryOrdersResponse(canPrint,
+                SystemTimeUtil.DATE_FORMAT.format(deliveryDay), ordersWithWorkLocation));
     }
 
     @GetMapping("/orders/{id}")
@@ -74,17 +51,6 @@ public class DeliveryController {
         }
         List<OrderItem> items = orderDAO.getOrderItemsByOrderId(id);
         
-        // 创建包含工位信息的订单对象
-        Map<String, Object> orderMap = new HashMap<>();
-        orderMap.put("id", order.getId());
-        orderMap.put("userId", order.getUserId());
-        orderMap.put("userName", order.getUserName());
-        orderMap.put("phone", order.getPhone());
-        orderMap.put("orderTime", order.getOrderTime());
-        orderMap.put("mealDate", order.getMealDate());
-        orderMap.put("totalPrice", order.getTotalPrice());
-        orderMap.put("createdAt", order.getCreatedAt());
-        
         // 优先使用订单中保存的工位信息，如果没有则从用户表获取
         String workLocation = order.getWorkLocation();
         if (workLocation == null || workLocation.isEmpty()) {
@@ -93,12 +59,7 @@ public class DeliveryController {
                 workLocation = user.getWorkstation();
             }
         }
-        orderMap.put("workLocation", workLocation);
-        
-        Map<String, Object> resp = new HashMap<>();
-        resp.put("order", orderMap);
-        resp.put("orderItems", items);
-        return ResponseEntity.ok(resp);
+        return ResponseEntity.ok(new DeliveryOrderDetailResponse(DeliveryOrderView.of(order, workLocation), items));
     }
 
 
@@ -118,12 +79,21 @@ public class DeliveryController {
         return ResponseEntity.ok(resp);
     }
 
-    private Date parseDateOrToday(String dateStr) throws ParseException {
-        if (dateStr == null || dateStr.isEmpty()) {
-            return new Date();
+
+    // 响应 DTO：类型固定的不可变记录，替代逐字段拷贝的 HashMap
+    public record DeliveryOrderView(Integer id, Integer userId, String userName, String phone,
+                                    String workLocation, Date orderTime, Date mealDate,
+                                    Double totalPrice, Date createdAt) {
+        static DeliveryOrderView of(Order order, String workLocation) {
+            return new DeliveryOrderView(order.getId(), order.getUserId(), order.getUserName(),
+                    order.getPhone(), workLocation, order.getOrderTime(), order.getMealDate(),
+                    order.getTotalPrice(), order.getCreatedAt());
         }
-        return sdf.parse(dateStr);
     }
-}
 
+    public record DeliveryOrdersResponse(boolean canPrint, String deliveryDate, List<DeliveryOrderView> orders) {
+    }
 
+    public record DeliveryOrderDetailResponse(DeliveryOrderView order, List<OrderItem> orderItems) {
+    }
+}
@@ -1,20 +1,33 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.RateLimited;
+import com.enterprise.catering.config.RequireRole;
 import com.enterprise.catering.dao.BlanketOrderDAO;
 import com.enterprise.catering.dao.OrderDAO;
 import com.enterprise.catering.model.BlanketOrder;
-import com.enterprise.catering.model.Order;
-import com.enterprise.catering.model.OrderItem;
+import com.enterprise.catering.util.SystemTimeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 import java.util.List;
 
@@ -23,14 +36,16 @@ import java.util.List;
  */
 @RestController
 @RequestMapping("/api/downloads")
+@RequireRole({"manager", "kitchen_chief"})
+@RateLimited("export")
 public class DownloadController {
 
     @Autowired
     private BlanketOrderDAO blanketOrderDAO;
     @Autowired
     private OrderDAO orderDAO;
-    private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-    private final SimpleDateFormat sdfDateTime = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+    // 导出缓冲区大小（字符）
+    private static final int CSV_BUFFER_SIZE = 8192;
 
     @GetMapping("/test")
     public ResponseEntity<String> test() {
@@ -40,7 +55,9 @@ public class DownloadController {
     @GetMapping("/blanket-order")
     public ResponseEntity<String> downloadBlanketOrder(@RequestParam(required = false) String date) {
         try {
-            Date reportDate = parseDateOrToday(date);
+            LocalDate reportDay = parseDateOrToday(date);
+            Date reportDate = SystemTimeUtil.toDate(reportDay);
+            String reportDayText = SystemTimeUtil.DATE_FORMAT.format(reportDay);
             
             List<BlanketOrder> blanketOrders = blanketOrderDAO.getBlanketOrdersByDate(reportDate);
             
@@ -48,13 +65,13 @@ public class DownloadController {
             if (blanketOrders == null || blanketOrders.isEmpty()) {
                 StringBuilder emptyCsv = new StringBuilder();
                 emptyCsv.append("\uFEFF"); // BOM for Excel UTF-8 support
-                emptyCsv.append("总括订单 - ").append(sdf.format(reportDate)).append("\n");
+                emptyCsv.append("总括订单 - ").append(reportDayText).append("\n");
                 emptyCsv.append("提示：该日期暂无订单数据\n");
                 emptyCsv.append("菜名,单位,总数量,单价,小计\n");
                 
                 HttpHeaders headers = new HttpHeaders();
                 headers.setContentType(MediaType.parseMediaType("text/csv;charset=UTF-8"));
-                String filename = "总括订单_" + sdf.format(reportDate) + ".csv";
+                String filename = "总括订单_" + reportDayText + ".csv";
                 setFilenameHeader(headers, filename);
                 
                 return ResponseEntity.ok()
@@ -62,43 +79,19 @@ public class DownloadController {
                         .body(emptyCsv.toString());
             }
 
-            StringBuilder csv = new StringBuilder();
-            csv.append("\uFEFF"); // BOM for Excel UTF-8 support
-            csv.append("总括订单 - ").append(sdf.format(reportDate)).append("\n");
-            csv.append("菜名,单位,总数量,单价,小计\n");
-            
-            double totalAmount = 0;
-            int itemCount = 0;
-            for (BlanketOrder order : blanketOrders) {
-                if (order == null) {
-                    continue;
-                }
-                
-                csv.append(escapeCsv(order.getItemName() != null ? order.getItemName() : "")).append(",");
-                csv.append(escapeCsv(order.getUnit() != null ? order.getUnit() : "")).append(",");
-                csv.append(order.getTotalQuantity()).append(",");
-                csv.append(String.format("%.2f", order.getPrice())).append(",");
-                csv.append(String.format("%.2f", order.getSubtotal())).append("\n");
-                totalAmount += order.getSubtotal();
-                itemCount++;
-            }
-            
-            csv.append("总计,,,,").append(String.format("%.2f", totalAmount)).append("\n");
-            
-            String csvContent = csv.toString();
+            String csvContent = buildBlanketOrderCsv(reportDayText, blanketOrders);
             
             // 设置响应头
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.parseMediaType("text/csv;charset=UTF-8"));
-            String filename = "总括订单_" + sdf.format(reportDate) + ".csv";
+            String filename = "总括订单_" + reportDayText + ".csv";
             setFilenameHeader(headers, filename);
             
             return ResponseEntity.ok()
                     .headers(headers)
                     .body(csvContent);
-        } catch (ParseException e) {
+        } catch (DateTimeParseException e) {
             System.err.println("日期解析失败: " + e.getMessage());
-            e.printStackTrace();
             return ResponseEntity.badRequest().body("日期格式错误，请使用 yyyy-MM-dd 格式");
         } catch (Exception e) {
             System.err.println("生成总括订单报表时发生错误: " + e.getMessage());
@@ -107,19 +100,43 @@ public class DownloadController {
         }
     }
     
-    private Date parseDateOrToday(String dateStr) throws ParseException {
-        if (dateStr == null || dateStr.isEmpty() || dateStr.trim().isEmpty()) {
-            return new Date();
+    /**
+     * 生成总括订单 CSV 内容
+     */
+    private static String buildBlanketOrderCsv(String reportDayText, List<BlanketOrder> blanketOrders) {
+        StringBuilder csv = new StringBuilder();
+        csv.append("\uFEFF"); // BOM for Excel UTF-8 support
+        csv.append("总括订单 - ").append(reportDayText).append("\n");
+        csv.append("菜名,单位,总数量,单价,小计\n");
+
+        double totalAmount = 0;
+        for (BlanketOrder order : blanketOrders) {
+            if (order == null) {
+                continue;
+            }
+
+            csv.append(escapeCsv(order.getItemName() != null ? order.getItemName() : "")).append(",");
+            csv.append(escapeCsv(order.getUnit() != null ? order.getUnit() : "")).append(",");
+            csv.append(order.getTotalQuantity()).append(",");
+            csv.append(String.format("%.2f", order.getPrice())).append(",");
+            csv.append(String.format("%.2f", order.getSubtotal())).append("\n");
+            totalAmount += order.getSubtotal();
         }
+
+        csv.append("总计,,,,").append(String.format("%.2f", totalAmount)).append("\n");
+        return csv.toString();
+    }
+
+    private LocalDate parseDateOrToday(String dateStr) {
         try {
-            return sdf.parse(dateStr.trim());
-        } catch (ParseException e) {
+            return SystemTimeUtil.parseDateOrToday(dateStr);
+        } catch (DateTimeParseException e) {
             System.err.println("日期解析失败: " + dateStr + ", 错误: " + e.getMessage());
             throw e;
         }
     }
     
-    private String escapeCsv(String value) {
+    private static String escapeCsv(String value) {
         if (value == null) {
             return "";
         }
@@ -144,111 +161,167 @@ public class DownloadController {
         }
     }
     
+    /**
+     * 每日订单导出：以流的方式直接写入响应输出流，
+     * 数据来自一条按订单排序的 orders JOIN order_items 游标查询，内存占用恒定。
+     */
     @GetMapping("/daily-order")
-    public ResponseEntity<String> downloadDailyOrder(@RequestParam(required = false) String date) {
+    public ResponseEntity<?> downloadDailyOrder(@RequestParam(required = false) String date) {
+        LocalDate reportDay;
         try {
-            Date reportDate = parseDateOrToday(date);
-            
-            List<Order> orders = orderDAO.getOrdersByDate(reportDate);
-            
-            // 如果数据为空，返回提示信息
-            if (orders == null || orders.isEmpty()) {
-                StringBuilder emptyCsv = new StringBuilder();
-                emptyCsv.append("\uFEFF"); // BOM for Excel UTF-8 support
-                emptyCsv.append("每日订单 - ").append(sdf.format(reportDate)).append("\n\n");
-                emptyCsv.append("提示：该日期暂无订单数据\n");
-                
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.parseMediaType("text/csv;charset=UTF-8"));
-                String filename = "每日订单_" + sdf.format(reportDate) + ".csv";
-                setFilenameHeader(headers, filename);
-                
-                return ResponseEntity.ok()
-                        .headers(headers)
-                        .body(emptyCsv.toString());
+            reportDay = parseDateOrToday(date);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("日期格式错误，请使用 yyyy-MM-dd 格式");
+        }
+        String reportDayText = SystemTimeUtil.DATE_FORMAT.format(reportDay);
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), CSV_BUFFER_SIZE);
+            writer.write("\uFEFF"); // BOM for Excel UTF-8 support
+            writer.write("每日订单 - ");
+            writer.write(reportDayText);
+            writer.write("\n\n");
+
+            DailyOrderCsvWriter csvWriter = new DailyOrderCsvWriter(writer);
+            try {
+                orderDAO.streamOrderLinesByDate(SystemTimeUtil.toDate(reportDay), csvWriter);
+                csvWriter.finish();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                System.err.println("生成每日订单报表时发生错误: " + e.getMessage());
+                e.printStackTrace();
+                // 响应头已发送，无法再返回错误状态码：先写入明确的失败标记，
+                // 再抛出异常让容器中断响应，不完整的文件不能被当作完整的每日订单
+                writer.write("\n导出失败：数据不完整，请重新导出\n");
+                writer.flush();
+                throw e;
             }
+            writer.flush();
+        };
 
-            StringBuilder csv = new StringBuilder();
-            csv.append("\uFEFF"); // BOM for Excel UTF-8 support
-            csv.append("每日订单 - ").append(sdf.format(reportDate)).append("\n\n");
-            
-            double totalAmount = 0;
-            int processedOrders = 0;
-            
-            for (Order order : orders) {
-                if (order == null) {
-                    continue;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType("text/csv;charset=UTF-8"));
+        String filename = "每日订单_" + reportDayText + ".csv";
+        setFilenameHeader(headers, filename);
+
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(body);
+    }
+
+    private static String formatMoney(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    /**
+     * 逐行消费订单明细游标并写出 CSV：订单切换时输出上一张订单的小计
+     */
+    private static class DailyOrderCsvWriter implements RowCallbackHandler {
+        private final Writer out;
+        private int currentOrderId = -1;
+        private double currentOrderTotal;
+        private int currentItemCount;
+        private double totalAmount;
+        private int processedOrders;
+
+        DailyOrderCsvWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                int orderId = rs.getInt("order_id");
+                if (orderId != currentOrderId) {
+                    endOrder();
+                    startOrder(rs, orderId);
                 }
-                
-                try {
-                    // 订单基本信息
-                    csv.append("订单ID: ").append(order.getId()).append("\n");
-                    csv.append("员工姓名: ").append(escapeCsv(order.getUserName() != null ? order.getUserName() : "")).append("\n");
-                    csv.append("联系电话: ").append(escapeCsv(order.getPhone() != null ? order.getPhone() : "")).append("\n");
-                    csv.append("订单时间: ").append(order.getOrderTime() != null ? sdfDateTime.format(order.getOrderTime()) : "").append("\n");
-                    csv.append("订单总额: ¥").append(String.format("%.2f", order.getTotalPrice())).append("\n");
-                    csv.append("\n");
-                    
-                    // 订单明细
-                    csv.append("菜品明细:\n");
-                    csv.append("菜名,单位,数量,单价,小计\n");
-                    
-                    List<OrderItem> items = orderDAO.getOrderItemsByOrderId(order.getId());
-                    
-                    if (items != null && !items.isEmpty()) {
-                        for (OrderItem item : items) {
-                            if (item == null) {
-                                continue;
-                            }
-                            csv.append(escapeCsv(item.getName() != null ? item.getName() : "")).append(",");
-                            csv.append(escapeCsv(item.getUnit() != null ? item.getUnit() : "")).append(",");
-                            csv.append(item.getQuantity()).append(",");
-                            csv.append(String.format("%.2f", item.getPrice())).append(",");
-                            csv.append(String.format("%.2f", item.getSubtotal())).append("\n");
-                        }
-                    } else {
-                        csv.append("（无订单项）\n");
-                    }
-                    
-                    csv.append("订单小计,,").append(items != null ? items.size() : 0).append(",,").append(String.format("%.2f", order.getTotalPrice())).append("\n");
-                    csv.append("\n");
-                    csv.append("----------------------------------------\n");
-                    csv.append("\n");
-                    
-                    totalAmount += order.getTotalPrice();
-                    processedOrders++;
-                } catch (Exception e) {
-                    System.err.println("处理订单 " + order.getId() + " 时发生错误: " + e.getMessage());
-                    e.printStackTrace();
-                    // 继续处理下一个订单
+                rs.getInt("item_id");
+                if (!rs.wasNull()) {
+                    writeItem(rs);
                 }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void startOrder(ResultSet rs, int orderId) throws SQLException, IOException {
+            currentOrderId = orderId;
+            currentOrderTotal = rs.getDouble("total_price");
+            currentItemCount = 0;
+
+            String userName = rs.getString("user_name");
+            String phone = rs.getString("phone");
+            Timestamp orderTime = rs.getTimestamp("order_time");
+
+            // 订单基本信息
+            out.write("订单ID: ");
+            out.write(Integer.toString(orderId));
+            out.write("\n员工姓名: ");
+            out.write(escapeCsv(userName != null ? userName : ""));
+            out.write("\n联系电话: ");
+            out.write(escapeCsv(phone != null ? phone : ""));
+            out.write("\n订单时间: ");
+            out.write(orderTime != null ? SystemTimeUtil.DATE_TIME_FORMAT.format(orderTime.toLocalDateTime()) : "");
+            out.write("\n订单总额: ¥");
+            out.write(formatMoney(currentOrderTotal));
+            out.write("\n\n");
+
+            // 订单明细
+            out.write("菜品明细:\n");
+            out.write("菜名,单位,数量,单价,小计\n");
+        }
+
+        private void writeItem(ResultSet rs) throws SQLException, IOException {
+            String name = rs.getString("name");
+            String unit = rs.getString("unit");
+            out.write(escapeCsv(name != null ? name : ""));
+            out.write(',');
+            out.write(escapeCsv(unit != null ? unit : ""));
+            out.write(',');
+            out.write(Integer.toString(rs.getInt("quantity")));
+            out.write(',');
+            out.write(formatMoney(rs.getDouble("price")));
+            out.write(',');
+            out.write(formatMoney(rs.getDouble("subtotal")));
+            out.write('\n');
+            currentItemCount++;
+        }
+
+        private void endOrder() throws IOException {
+            if (currentOrderId < 0) {
+                return;
+            }
+            if (currentItemCount == 0) {
+                out.write("（无订单项）\n");
+            }
+            out.write("订单小计,,");
+            out.write(Integer.toString(currentItemCount));
+            out.write(",,");
+            out.write(formatMoney(currentOrderTotal));
+            out.write("\n\n----------------------------------------\n\n");
+
+            totalAmount += currentOrderTotal;
+            processedOrders++;
+        }
+
+        void finish() throws IOException {
+            endOrder();
+            currentOrderId = -1;
+            if (processedOrders == 0) {
+                // 该日期无订单，返回提示信息
+                out.write("提示：该日期暂无订单数据\n");
+                return;
             }
-            
             // 汇总信息
-            csv.append("汇总信息\n");
-            csv.append("订单总数: ").append(processedOrders).append("\n");
-            csv.append("总金额: ¥").append(String.format("%.2f", totalAmount)).append("\n");
-            
-            String csvContent = csv.toString();
-            
-            // 设置响应头
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType("text/csv;charset=UTF-8"));
-            String filename = "每日订单_" + sdf.format(reportDate) + ".csv";
-            setFilenameHeader(headers, filename);
-            
-            return ResponseEntity.ok()
-                    .headers(headers)
-                    .body(csvContent);
-        } catch (ParseException e) {
-            System.err.println("日期解析失败: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.badRequest().body("日期格式错误，请使用 yyyy-MM-dd 格式");
-        } catch (Exception e) {
-            System.err.println("生成每日订单报表时发生错误: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.status(500).body("生成报表失败: " + e.getMessage());
+            out.write("汇总信息\n");
+            out.write("订单总数: ");
+            out.write(Integer.toString(processedOrders));
+            out.write("\n总金额: ¥");
+            out.write(formatMoney(totalAmount));
+            out.write("\n");
         }
     }
 }
-
@@ -1,5 +1,6 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.RequireRole;
 import com.enterprise.catering.util.Config;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +20,7 @@ import java.util.UUID;
  */
 @RestController
 @RequestMapping("/api/files")
+@RequireRole("manager")
 public class FileUploadController {
 
     @PostMapping("/upload")
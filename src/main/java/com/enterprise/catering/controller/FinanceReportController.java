@@ -1,16 +1,26 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.AuthInterceptor;
+import com.enterprise.catering.config.RateLimited;
+import com.enterprise.catering.config.RequireRole;
+import com.enterprise.catering.config.RoleInterceptor;
 import com.enterprise.catering.dao.OrderDAO;
 import com.enterprise.catering.dao.UserDAO;
 import com.enterprise.catering.model.Order;
 import com.enterprise.catering.model.User;
+import com.enterprise.catering.service.SingleFlight;
+import com.enterprise.catering.util.SystemTimeUtil;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.YearMonth;
 import java.util.*;
 
 /**
@@ -18,6 +28,7 @@ import java.util.*;
  */
 @RestController
 @RequestMapping("/api/reports")
+@RateLimited("report")
 public class FinanceReportController {
 
     @Autowired
@@ -26,22 +37,47 @@ public class FinanceReportController {
     private UserDAO userDAO;
     @Autowired
     private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private SingleFlight singleFlight;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 只读事务只包住实际执行查询的调用者，等待合并结果的请求不占用数据库连接
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    private static final RowMapper<SalesItem> SALES_ITEM_ROW_MAPPER = (rs, rowNum) -> new SalesItem(
+            rs.getString("name"),
+            rs.getString("unit"),
+            rs.getInt("total_quantity"),
+            rs.getDouble("price"),
+            rs.getDouble("subtotal")
+    );
 
     /**
      * 月度销售统计（按菜品汇总）
      * GET /api/reports/monthly-sales?month=yyyy-MM
      */
     @GetMapping("/monthly-sales")
+    @RequireRole({"manager", "finance"})
     public ResponseEntity<?> monthlySales(@RequestParam(required = false) String month) {
-        Date reportDate = parseMonthOrDefault(month);
-        
-        List<SalesItem> salesData = generateMonthlySalesData(reportDate);
+        YearMonth reportMonth = SystemTimeUtil.parseMonthOrCurrent(month);
+
+        // 同一月份的并发请求共享一次查询；已结束的月份数据不再变化，结果短期缓存
+        boolean closedMonth = reportMonth.isBefore(YearMonth.now(SystemTimeUtil.ZONE));
+        List<SalesItem> salesData = singleFlight.execute("monthly-sales:" + reportMonth, closedMonth,
+                () -> readOnlyTransaction.execute(status -> generateMonthlySalesData(reportMonth)));
         double totalAmount = calculateMonthlyTotal(salesData);
 
         Map<String, Object> resp = new HashMap<>();
         resp.put("salesData", salesData);
         resp.put("totalAmount", totalAmount);
-        resp.put("reportMonth", new SimpleDateFormat("yyyy-MM").format(reportDate));
+        resp.put("reportMonth", SystemTimeUtil.MONTH_FORMAT.format(reportMonth));
         return ResponseEntity.ok(resp);
     }
 
@@ -50,140 +86,87 @@ public class FinanceReportController {
      * GET /api/reports/employee-summary?userId=&month=yyyy-MM
      */
     @GetMapping("/employee-summary")
+    @RequireRole({"manager", "finance"})
+    @Transactional(readOnly = true)
     public ResponseEntity<?> employeeSummary(@RequestParam int userId,
                                              @RequestParam(required = false) String month) {
-        Date reportDate = parseMonthOrDefault(month);
+        YearMonth reportMonth = SystemTimeUtil.parseMonthOrCurrent(month);
         User employee = userDAO.findById(userId);
         if (employee == null) {
             return ResponseEntity.notFound().build();
         }
-        List<SalesItem> salesData = generateEmployeeSalesData(userId, reportDate);
+        List<SalesItem> salesData = generateEmployeeSalesData(userId, reportMonth);
         double totalAmount = calculateMonthlyTotal(salesData);
-        List<Order> monthlyOrders = orderDAO.getOrdersByUserIdAndMonth(userId, reportDate);
+        List<Order> monthlyOrders = orderDAO.getOrdersByUserIdAndMonth(userId, SystemTimeUtil.toDate(reportMonth.atDay(1)));
 
         Map<String, Object> resp = new HashMap<>();
         resp.put("employee", employee);
         resp.put("salesData", salesData);
         resp.put("totalAmount", totalAmount);
-        resp.put("reportMonth", new SimpleDateFormat("yyyy-MM").format(reportDate));
+        resp.put("reportMonth", SystemTimeUtil.MONTH_FORMAT.format(reportMonth));
         resp.put("monthlyOrders", monthlyOrders);
         return ResponseEntity.ok(resp);
     }
 
     /**
-     * 个人月度订单统计（员工自己查看）
+     * 个人月度订单统计（员工只能查看自己的，经理、财务可查看任意员工）
+     * 员工刚下单后就会查看，不走从库，避免复制延迟导致看不到刚下的订单；
+     * 单独的限流分组，员工查看个人统计不占用经理、财务报表的全局配额
      * GET /api/reports/personal-summary?userId=&month=yyyy-MM
      */
     @GetMapping("/personal-summary")
+    @RateLimited("personal-report")
     public ResponseEntity<?> personalSummary(@RequestParam int userId,
-                                             @RequestParam(required = false) String month) {
-        Date reportDate = parseMonthOrDefault(month);
-        User user = userDAO.findById(userId);
+                                             @RequestParam(required = false) String month,
+                                             @SessionAttribute(name = "user", required = false) User currentUser,
+                                             @RequestAttribute(AuthInterceptor.USER_ID_ATTRIBUTE) int currentUserId,
+                                             @RequestAttribute(AuthInterceptor.USER_ROLE_ATTRIBUTE) String currentRole) {
+        if (userId != currentUserId && !RoleInterceptor.hasAnyRole(currentRole, "manager", "finance")) {
+            return RoleInterceptor.forbidden();
+        }
+        YearMonth reportMonth = SystemTimeUtil.parseMonthOrCurrent(month);
+        // 员工查看自己的统计时直接使用 Session 中的用户，不再查询 users 表
+        User user = currentUser != null && currentUser.getId() == userId ? currentUser : userDAO.findById(userId);
         if (user == null) {
             return ResponseEntity.notFound().build();
         }
-        List<SalesItem> salesData = generateEmployeeSalesData(userId, reportDate);
+        List<SalesItem> salesData = generateEmployeeSalesData(userId, reportMonth);
         double totalAmount = calculateMonthlyTotal(salesData);
 
         Map<String, Object> resp = new HashMap<>();
         resp.put("user", user);
         resp.put("salesData", salesData);
         resp.put("totalAmount", totalAmount);
-        resp.put("reportMonth", new SimpleDateFormat("yyyy-MM").format(reportDate));
+        resp.put("reportMonth", SystemTimeUtil.MONTH_FORMAT.format(reportMonth));
         resp.put("now", new Date());
         return ResponseEntity.ok(resp);
     }
 
 
-    private Date parseMonthOrDefault(String monthStr) {
-        if (monthStr == null || monthStr.isEmpty()) {
-            Calendar cal = Calendar.getInstance();
-            cal.set(Calendar.DAY_OF_MONTH, 1);
-            return cal.getTime();
-        }
-        try {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM");
-            return sdf.parse(monthStr);
-        } catch (ParseException e) {
-            return new Date();
-        }
-    }
-
-    private List<SalesItem> generateMonthlySalesData(Date reportDate) {
-        List<SalesItem> salesData = new ArrayList<>();
-
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(reportDate);
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        Date startDate = cal.getTime();
-        
-        cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
-        cal.set(Calendar.HOUR_OF_DAY, 23);
-        cal.set(Calendar.MINUTE, 59);
-        cal.set(Calendar.SECOND, 59);
-        cal.set(Calendar.MILLISECOND, 999);
-        Date endDate = cal.getTime();
-
-        String sql = "SELECT oi.name, oi.unit, SUM(oi.quantity) as total_quantity, " +
-                "oi.price, SUM(oi.subtotal) as subtotal " +
-                "FROM orders o " +
-                "JOIN order_items oi ON o.id = oi.order_id " +
-                "WHERE o.meal_date >= ? AND o.meal_date <= ? " +
-                "GROUP BY oi.name, oi.unit, oi.price " +
-                "ORDER BY oi.name";
-
-        System.out.println("执行SQL查询...");
-        List<SalesItem> results = jdbcTemplate.query(sql, 
-            (rs, rowNum) -> new SalesItem(
-                rs.getString("name"),
-                rs.getString("unit"),
-                rs.getInt("total_quantity"),
-                rs.getDouble("price"),
-                rs.getDouble("subtotal")
-            ),
-            new java.sql.Timestamp(startDate.getTime()),
-            new java.sql.Timestamp(endDate.getTime())
-        );
-        salesData.addAll(results);
-        return salesData;
+    /**
+     * 月度销售数据：对 daily_item_sales 汇总行求和，不再扫描订单明细
+     */
+    private List<SalesItem> generateMonthlySalesData(YearMonth reportMonth) {
+        String sql = "SELECT name, unit, SUM(qty) AS total_quantity, price, SUM(amount) AS subtotal " +
+                "FROM daily_item_sales " +
+                "WHERE meal_date BETWEEN ? AND ? " +
+                "GROUP BY name, unit, price " +
+                "ORDER BY name";
+        return jdbcTemplate.query(sql, SALES_ITEM_ROW_MAPPER,
+                java.sql.Date.valueOf(reportMonth.atDay(1)),
+                java.sql.Date.valueOf(reportMonth.atEndOfMonth()));
     }
 
-    private List<SalesItem> generateEmployeeSalesData(int userId, Date reportDate) {
-        List<SalesItem> salesData = new ArrayList<>();
-
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(reportDate);
-        cal.set(Calendar.DAY_OF_MONTH, 1);
-        Date startDate = cal.getTime();
-        cal.set(Calendar.DAY_OF_MONTH, cal.getActualMaximum(Calendar.DAY_OF_MONTH));
-        Date endDate = cal.getTime();
-
-        String sql = "SELECT oi.name, oi.unit, SUM(oi.quantity) as total_quantity, " +
-                "oi.price, SUM(oi.subtotal) as subtotal " +
-                "FROM orders o " +
-                "JOIN order_items oi ON o.id = oi.order_id " +
-                "WHERE o.user_id = ? AND o.meal_date BETWEEN ? AND ? " +
-                "GROUP BY oi.name, oi.unit, oi.price " +
-                "ORDER BY oi.name";
-
-        List<SalesItem> results = jdbcTemplate.query(sql, 
-            (rs, rowNum) -> new SalesItem(
-                rs.getString("name"),
-                rs.getString("unit"),
-                rs.getInt("total_quantity"),
-                rs.getDouble("price"),
-                rs.getDouble("subtotal")
-            ),
-            userId,
-            new java.sql.Date(startDate.getTime()),
-            new java.sql.Date(endDate.getTime())
-        );
-        salesData.addAll(results);
-        return salesData;
+    private List<SalesItem> generateEmployeeSalesData(int userId, YearMonth reportMonth) {
+        String sql = "SELECT name, unit, SUM(qty) AS total_quantity, price, SUM(amount) AS subtotal " +
+                "FROM daily_item_sales " +
+                "WHERE user_id = ? AND meal_date BETWEEN ? AND ? " +
+                "GROUP BY name, unit, price " +
+                "ORDER BY name";
+        return jdbcTemplate.query(sql, SALES_ITEM_ROW_MAPPER,
+                userId,
+                java.sql.Date.valueOf(reportMonth.atDay(1)),
+                java.sql.Date.valueOf(reportMonth.atEndOfMonth()));
     }
 
     private double calculateMonthlyTotal(List<SalesItem> salesData) {
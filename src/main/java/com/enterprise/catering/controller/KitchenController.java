@@ -1,57 +1,92 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.RateLimited;
+import com.enterprise.catering.config.RequireRole;
 import com.enterprise.catering.dao.BlanketOrderDAO;
 import com.enterprise.catering.model.BlanketOrder;
+import com.enterprise.catering.service.SingleFlight;
+import com.enterprise.catering.util.SystemTimeUtil;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.LocalDate;
 import java.util.*;
 
 /**
  * 厨房相关接口：总括订单查看与生成。
+ * 总括订单在下单时增量维护，“生成”接口用于按订单表重建某日汇总。
  */
 @RestController
 @RequestMapping("/api/kitchen")
+@RequireRole({"manager", "kitchen_chief"})
 public class KitchenController {
 
     @Autowired
     private BlanketOrderDAO blanketOrderDAO;
-    private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
+    @Autowired
+    private SingleFlight singleFlight;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // 读写事务：其中的只读查询加入该事务，与重建使用同一主库连接，不受从库复制延迟影响
+    private TransactionTemplate primaryTransaction;
+
+    @PostConstruct
+    public void init() {
+        primaryTransaction = new TransactionTemplate(transactionManager);
+    }
 
     @GetMapping("/blanket-orders")
-    public ResponseEntity<?> getBlanketOrders(@RequestParam(required = false) String date) throws ParseException {
-        Date reportDate = parseDateOrToday(date);
-        List<BlanketOrder> blanketOrders = blanketOrderDAO.getBlanketOrdersByDate(reportDate);
-        double totalAmount = blanketOrderDAO.calculateTotalAmount(reportDate);
+    public ResponseEntity<?> getBlanketOrders(@RequestParam(required = false) String date) {
+        LocalDate reportDay = SystemTimeUtil.parseDateOrToday(date);
+        Date reportDate = SystemTimeUtil.toDate(reportDay);
+
+        // 同一日期的并发请求共享一次查询；过去日期的总括订单不再变化，结果短期缓存
+        boolean closedDay = reportDay.isBefore(LocalDate.now(SystemTimeUtil.ZONE));
+        BlanketOrderSummary summary = singleFlight.execute(blanketOrdersKey(reportDay), closedDay,
+                () -> new BlanketOrderSummary(blanketOrderDAO.getBlanketOrdersByDate(reportDate),
+                        blanketOrderDAO.calculateTotalAmount(reportDate)));
 
         Map<String, Object> resp = new HashMap<>();
-        resp.put("blanketOrders", blanketOrders);
-        resp.put("totalAmount", totalAmount);
-        resp.put("reportDate", sdf.format(reportDate));
+        resp.put("blanketOrders", summary.blanketOrders());
+        resp.put("totalAmount", summary.totalAmount());
+        resp.put("reportDate", SystemTimeUtil.DATE_FORMAT.format(reportDay));
         return ResponseEntity.ok(resp);
     }
 
     @PostMapping("/blanket-orders/generate")
-    public ResponseEntity<?> generateBlanketOrder(@RequestParam(required = false) String date) throws ParseException {
-        Date reportDate = parseDateOrToday(date);
-        boolean success = blanketOrderDAO.generateBlanketOrder(reportDate);
+    @RateLimited("kitchen-generate")
+    public ResponseEntity<?> generateBlanketOrder(@RequestParam(required = false) String date) {
+        LocalDate reportDay = SystemTimeUtil.parseDateOrToday(date);
+        Date reportDate = SystemTimeUtil.toDate(reportDay);
+        boolean success;
+        try {
+            success = blanketOrderDAO.generateBlanketOrder(reportDate);
+            singleFlight.invalidate(blanketOrdersKey(reportDay));
+        } catch (Exception e) {
+            System.err.println("重新生成总括订单失败: " + e.getMessage());
+            e.printStackTrace();
+            success = false;
+        }
+        // 返回刚重建的结果，从主库读取
+        BlanketOrderSummary summary = primaryTransaction.execute(status -> new BlanketOrderSummary(
+                blanketOrderDAO.getBlanketOrdersByDate(reportDate), blanketOrderDAO.calculateTotalAmount(reportDate)));
         Map<String, Object> resp = new HashMap<>();
         resp.put("success", success);
-        resp.put("reportDate", sdf.format(reportDate));
-        resp.put("blanketOrders", blanketOrderDAO.getBlanketOrdersByDate(reportDate));
-        resp.put("totalAmount", blanketOrderDAO.calculateTotalAmount(reportDate));
+        resp.put("reportDate", SystemTimeUtil.DATE_FORMAT.format(reportDay));
+        resp.put("blanketOrders", summary.blanketOrders());
+        resp.put("totalAmount", summary.totalAmount());
         return ResponseEntity.ok(resp);
     }
 
-    private Date parseDateOrToday(String dateStr) throws ParseException {
-        if (dateStr == null || dateStr.isEmpty()) {
-            return new Date();
-        }
-        return sdf.parse(dateStr);
+    private static String blanketOrdersKey(LocalDate reportDay) {
+        return "blanket-orders:" + reportDay;
     }
-}
-
 
+    private record BlanketOrderSummary(List<BlanketOrder> blanketOrders, double totalAmount) {
+    }
+}
@@ -1,17 +1,21 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.RequireRole;
 import com.enterprise.catering.dao.MenuDAO;
 import com.enterprise.catering.dao.MenuItemDAO;
 import com.enterprise.catering.dao.RecipeDAO;
 import com.enterprise.catering.model.Menu;
 import com.enterprise.catering.model.MenuItem;
 import com.enterprise.catering.model.Recipe;
+import com.enterprise.catering.service.TodayMenuCache;
+import com.enterprise.catering.util.SystemTimeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -33,6 +37,8 @@ public class MenuController {
     private MenuItemDAO menuItemDAO;
     @Autowired
     private RecipeDAO recipeDAO;
+    @Autowired
+    private TodayMenuCache todayMenuCache;
 
     @GetMapping
     public ResponseEntity<?> listMenus() {
@@ -40,18 +46,20 @@ public class MenuController {
         return ResponseEntity.ok(menus);
     }
 
+    /**
+     * 今日菜单：直接返回缓存中已序列化的 JSON，支持 ETag / 304
+     */
     @GetMapping("/today")
-    public ResponseEntity<?> todayMenus() {
-        List<Menu> activeMenus = menuDAO.getActiveMenusForToday();
-        // 组装菜单及其菜单项
-        Map<Integer, List<MenuItem>> itemsMap = new HashMap<>();
-        for (Menu menu : activeMenus) {
-            itemsMap.put(menu.getId(), menuItemDAO.getMenuItemsByMenuId(menu.getId()));
+    public ResponseEntity<?> todayMenus(WebRequest request) {
+        TodayMenuCache.Snapshot snapshot = todayMenuCache.get();
+        if (request.checkNotModified(snapshot.getEtag())) {
+            return null;
         }
-        Map<String, Object> result = new HashMap<>();
-        result.put("menus", activeMenus);
-        result.put("itemsMap", itemsMap);
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok()
+                .eTag(snapshot.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(snapshot.getBody());
     }
 
     @GetMapping("/{id}")
@@ -68,32 +76,38 @@ public class MenuController {
     }
 
     @PostMapping
-    public ResponseEntity<?> createMenu(@RequestBody MenuRequest body) throws ParseException {
+    @RequireRole("manager")
+    public ResponseEntity<?> createMenu(@RequestBody MenuRequest body) {
         Menu menu = new Menu();
         menu.setName(body.getName());
         menu.setDate(parseDate(body.getDate()));
         menu.setActive(body.isActive());
         int menuId = menuDAO.addMenu(menu);
+        todayMenuCache.invalidate();
         Map<String, Object> result = new HashMap<>();
         result.put("id", menuId);
         return ResponseEntity.ok(result);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateMenu(@PathVariable int id, @RequestBody MenuRequest body) throws ParseException {
+    @RequireRole("manager")
+    public ResponseEntity<?> updateMenu(@PathVariable int id, @RequestBody MenuRequest body) {
         Menu menu = new Menu();
         menu.setId(id);
         menu.setName(body.getName());
         menu.setDate(parseDate(body.getDate()));
         menu.setActive(body.isActive());
         menuDAO.updateMenu(menu);
+        todayMenuCache.invalidate();
         return ResponseEntity.ok().build();
     }
 
     @DeleteMapping("/{id}")
+    @RequireRole("manager")
     public ResponseEntity<?> deleteMenu(@PathVariable int id) {
         menuItemDAO.deleteMenuItemsByMenuId(id);
         menuDAO.deleteMenu(id);
+        todayMenuCache.invalidate();
         return ResponseEntity.ok().build();
     }
 
@@ -104,6 +118,7 @@ public class MenuController {
     }
 
     @PostMapping("/{id}/items")
+    @RequireRole("manager")
     public ResponseEntity<?> addMenuItem(@PathVariable int id, @RequestBody MenuItemRequest body) {
         int recipeId = body.getRecipeId();
         String name = body.getName();
@@ -153,6 +168,7 @@ public class MenuController {
 
         try {
             menuItemDAO.addMenuItem(item);
+            todayMenuCache.invalidate();
             // 返回成功响应，包含保存的菜品信息
             Map<String, Object> result = new HashMap<>();
             result.put("success", true);
@@ -165,6 +181,7 @@ public class MenuController {
     }
 
     @PutMapping("/items/{itemId}")
+    @RequireRole("manager")
     public ResponseEntity<?> updateMenuItem(@PathVariable int itemId, @RequestBody MenuItemRequest body) {
         MenuItem existing = menuItemDAO.getMenuItemById(itemId);
         if (existing == null) {
@@ -194,17 +211,20 @@ public class MenuController {
         existing.setImage(image);
 
         menuItemDAO.updateMenuItem(existing);
+        todayMenuCache.invalidate();
         return ResponseEntity.ok().build();
     }
 
     @DeleteMapping("/items/{itemId}")
+    @RequireRole("manager")
     public ResponseEntity<?> deleteMenuItem(@PathVariable int itemId) {
         menuItemDAO.deleteMenuItem(itemId);
+        todayMenuCache.invalidate();
         return ResponseEntity.ok().build();
     }
 
-    private Date parseDate(String s) throws ParseException {
-        return new SimpleDateFormat("yyyy-MM-dd").parse(s);
+    private Date parseDate(String s) {
+        return SystemTimeUtil.toDate(SystemTimeUtil.parseDate(s));
     }
 
     // DTO
@@ -1,5 +1,8 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.AuthInterceptor;
+import com.enterprise.catering.config.RequireRole;
+import com.enterprise.catering.config.RoleInterceptor;
 import com.enterprise.catering.dao.MenuItemDAO;
 import com.enterprise.catering.dao.OrderDAO;
 import com.enterprise.catering.dao.UserDAO;
@@ -7,44 +10,79 @@ import com.enterprise.catering.model.MenuItem;
 import com.enterprise.catering.model.Order;
 import com.enterprise.catering.model.OrderItem;
 import com.enterprise.catering.model.User;
+import com.enterprise.catering.service.IdempotencyCache;
+import com.enterprise.catering.service.OrderIntakeService;
+import com.enterprise.catering.service.OrderService;
+import com.enterprise.catering.service.TodayMenuCache;
 import com.enterprise.catering.util.SystemTimeUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * 订单相关 REST 接口：
- * - GET  /api/orders        : 当前用户或全部订单列表
+ * - GET  /api/orders        : 当前用户的订单列表（经理、财务可通过 userId 查看指定员工）
+ * - GET  /api/orders/all    : 全部订单列表（经理、财务）
  * - GET  /api/orders/{id}   : 订单详情（含订单项）
- * - POST /api/orders        : 创建订单（单菜品版，对应原 newOrder.jsp 表单）
+ * - POST /api/orders        : 创建订单（单菜品版，对应原 newOrder.jsp 表单）；
+ *                             支持 Idempotency-Key 请求头，重试时返回原订单；
+ *                             开启异步受理时返回 202 及受理凭证，队列满时返回 429
+ * - GET  /api/orders/intake/{token} : 异步受理订单的处理状态
  *
  */
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    // 与 orders.idempotency_key 列长度一致
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 64;
+
     @Autowired
     private OrderDAO orderDAO;
     @Autowired
     private MenuItemDAO menuItemDAO;
     @Autowired
     private UserDAO userDAO;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+    @Autowired
+    private OrderIntakeService orderIntakeService;
+    @Autowired
+    private TodayMenuCache todayMenuCache;
 
+    /**
+     * 角色和用户ID取自认证结果，不信任请求参数；员工只能查看自己的订单
+     */
     @GetMapping
     public ResponseEntity<?> listOrders(@RequestParam(required = false) Integer userId,
-                                        @RequestParam(required = false, defaultValue = "employee") String role)
-            {
-        List<Order> orders;
-        if ("employee".equals(role) && userId != null) {
-            orders = orderDAO.getOrdersByUserId(userId);
-        } else {
-            orders = orderDAO.getAllOrders();
-        }
-        return ResponseEntity.ok(orders);
+                                        @RequestAttribute(AuthInterceptor.USER_ID_ATTRIBUTE) int currentUserId,
+                                        @RequestAttribute(AuthInterceptor.USER_ROLE_ATTRIBUTE) String currentRole) {
+        if (userId == null) {
+            userId = currentUserId;
+        } else if (!canViewUser(userId, currentUserId, currentRole)) {
+            return RoleInterceptor.forbidden();
+        }
+        return ResponseEntity.ok(orderDAO.getOrdersByUserId(userId));
+    }
+
+    @GetMapping("/all")
+    @RequireRole({"manager", "finance"})
+    public ResponseEntity<?> listAllOrders() {
+        return ResponseEntity.ok(orderDAO.getAllOrders());
     }
 
     /**
@@ -53,39 +91,66 @@ public class OrderController {
      * - 返回该用户当天是否已下单
      * - 返回当天是否已超过订餐截止时间
      * - 返回当前截止时间和配餐开始时间配置，便于前端展示
+     * 员工只能查询自己的
      */
     @GetMapping("/availability")
-    public ResponseEntity<?> availability(@RequestParam int userId) {
-        Date orderDate = SystemTimeUtil.getAvailableOrderDate();
+    public ResponseEntity<?> availability(@RequestParam int userId,
+                                          @RequestAttribute(AuthInterceptor.USER_ID_ATTRIBUTE) int currentUserId,
+                                          @RequestAttribute(AuthInterceptor.USER_ROLE_ATTRIBUTE) String currentRole) {
+        if (!canViewUser(userId, currentUserId, currentRole)) {
+            return RoleInterceptor.forbidden();
+        }
+        LocalDate orderDate = SystemTimeUtil.getAvailableOrderDate();
         boolean deadlinePassed = SystemTimeUtil.isOrderDeadlinePassedForDate(orderDate);
-        boolean hasOrdered = orderDAO.hasOrderByUserIdAndDate(userId, orderDate);
-
-        java.text.SimpleDateFormat df = new java.text.SimpleDateFormat("yyyy-MM-dd");
-
-        java.util.Map<String, Object> resp = new java.util.HashMap<>();
-        resp.put("orderDate", df.format(orderDate));
-        resp.put("deadlinePassed", deadlinePassed);
-        resp.put("hasOrderedToday", hasOrdered);
-        resp.put("orderDeadline", com.enterprise.catering.controller.SystemConfigController.getOrderDeadline());
-        resp.put("deliveryStartTime", com.enterprise.catering.controller.SystemConfigController.getDeliveryStartTime());
-        return ResponseEntity.ok(resp);
+        boolean hasOrdered = orderDAO.hasOrderByUserIdAndDate(userId, SystemTimeUtil.toDate(orderDate));
+
+        return ResponseEntity.ok(new AvailabilityResponse(
+                SystemTimeUtil.DATE_FORMAT.format(orderDate),
+                deadlinePassed,
+                hasOrdered,
+                SystemConfigController.getOrderDeadline(),
+                SystemConfigController.getDeliveryStartTime()));
     }
 
+    /**
+     * 订单详情：员工只能查看自己的订单
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<?> getOrder(@PathVariable int id) {
+    public ResponseEntity<?> getOrder(@PathVariable int id,
+                                      @RequestAttribute(AuthInterceptor.USER_ID_ATTRIBUTE) int currentUserId,
+                                      @RequestAttribute(AuthInterceptor.USER_ROLE_ATTRIBUTE) String currentRole) {
         Order order = orderDAO.getOrderById(id);
         if (order == null) {
             return ResponseEntity.notFound().build();
         }
+        if (!canViewUser(order.getUserId(), currentUserId, currentRole)) {
+            return RoleInterceptor.forbidden();
+        }
         List<OrderItem> items = orderDAO.getOrderItemsByOrderId(id);
         return ResponseEntity.ok(new OrderDetailResponse(order, items));
     }
 
     @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest req) {
+    public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest req,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                         @SessionAttribute(name = "user", required = false) User currentUser) {
         if (req.getUserId() == null) {
             return ResponseEntity.badRequest().body("missing_params");
         }
+        if (idempotencyKey != null && idempotencyKey.isEmpty()) {
+            idempotencyKey = null;
+        }
+        if (idempotencyKey != null && idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body("invalid_idempotency_key");
+        }
+
+        // 重试请求：直接返回首次请求创建的订单
+        if (idempotencyKey != null) {
+            Order existing = idempotencyCache.get(req.getUserId(), idempotencyKey);
+            if (existing != null) {
+                return ResponseEntity.ok(existing);
+            }
+        }
 
         // 支持两种格式：单个菜品（向后兼容）和多个菜品
         List<OrderItemRequest> items = req.getItems();
@@ -102,29 +167,47 @@ public class OrderController {
             }
         }
 
-        Date orderDate = SystemTimeUtil.getAvailableOrderDate();
+        LocalDate orderDay = SystemTimeUtil.getAvailableOrderDate();
+        Date orderDate = SystemTimeUtil.toDate(orderDay);
 
-        if (SystemTimeUtil.isOrderDeadlinePassedForDate(orderDate)) {
+        if (SystemTimeUtil.isOrderDeadlinePassedForDate(orderDay)) {
             return ResponseEntity.badRequest().body("deadline_passed");
         }
 
         if (orderDAO.hasOrderByUserIdAndDate(req.getUserId(), orderDate)) {
-            return ResponseEntity.badRequest().body("already_ordered_today");
+            return alreadyOrdered(req.getUserId(), orderDate, idempotencyKey);
         }
 
-        // 获取用户的工位信息
-        User user = userDAO.findById(req.getUserId());
+        boolean async = orderIntakeService.isEnabled();
+
+        // 获取用户的工位信息：本人下单直接取 Session 中的用户，
+        // 代他人下单时才查库（异步受理时由写线程批量补全）
         String workLocation = null;
-        if (user != null) {
-            workLocation = user.getWorkstation();
+        if (currentUser != null && currentUser.getId() == req.getUserId()) {
+            workLocation = currentUser.getWorkstation();
+        } else if (!async) {
+            User user = userDAO.findById(req.getUserId());
+            if (user != null) {
+                workLocation = user.getWorkstation();
+            }
         }
 
-        // 验证所有菜品并计算总价
+        // 一次查询取回所有请求的菜品，再逐项验证并计算总价
+        Set<Integer> menuItemIds = new HashSet<>();
+        for (OrderItemRequest itemReq : items) {
+            if (itemReq.getMenuItemId() == null || itemReq.getQuantity() == null) {
+                return ResponseEntity.badRequest().body("missing_params");
+            }
+            menuItemIds.add(itemReq.getMenuItemId());
+        }
+        Map<Integer, MenuItem> menuItems = async ? lookupCachedMenuItems(menuItemIds)
+                : menuItemDAO.getMenuItemsByIds(menuItemIds);
+
         double totalPrice = 0;
         List<OrderItem> orderItems = new ArrayList<>();
         
         for (OrderItemRequest itemReq : items) {
-            MenuItem menuItem = menuItemDAO.getMenuItemById(itemReq.getMenuItemId());
+            MenuItem menuItem = menuItems.get(itemReq.getMenuItemId());
             if (menuItem == null) {
                 return ResponseEntity.badRequest().body("invalid_menu_item: " + itemReq.getMenuItemId());
             }
@@ -155,18 +238,88 @@ public class OrderController {
         order.setWorkLocation(workLocation);
         order.setMealDate(orderDate);
         order.setTotalPrice(totalPrice);
+        order.setIdempotencyKey(idempotencyKey);
+
+        if (async) {
+            String token = orderIntakeService.submit(order, orderItems);
+            if (token == null) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body("intake_queue_full");
+            }
+            return ResponseEntity.accepted()
+                    .body(new IntakeResponse(token, OrderIntakeService.STATUS_PENDING, null, null));
+        }
 
-        orderDAO.addOrder(order);
-
-        // 添加所有订单项
-        for (OrderItem orderItem : orderItems) {
-            orderItem.setOrderId(order.getId());
-            orderDAO.addOrderItem(orderItem);
+        // 订单、订单项及总括订单汇总在同一事务中写入；
+        // 并发重复提交由 (user_id, meal_date) 唯一约束拦截
+        try {
+            orderService.placeOrder(order, orderItems);
+        } catch (DuplicateKeyException e) {
+            return alreadyOrdered(req.getUserId(), orderDate, idempotencyKey);
         }
 
+        if (idempotencyKey != null) {
+            idempotencyCache.put(req.getUserId(), idempotencyKey, order);
+        }
         return ResponseEntity.ok(order);
     }
 
+    /**
+     * 查询异步受理订单的处理状态
+     */
+    @GetMapping("/intake/{token}")
+    public ResponseEntity<?> intakeStatus(@PathVariable String token) {
+        OrderIntakeService.IntakeStatus status = orderIntakeService.getStatus(token);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new IntakeResponse(token, status.getStatus(), status.getOrderId(), status.getReason()));
+    }
+
+    /**
+     * 优先从今日菜单缓存中取菜品，缓存未命中的（如预订明天的菜单）再查库
+     */
+    /**
+     * 本人或经理、财务可查看该用户的订单数据
+     */
+    private static boolean canViewUser(Integer userId, int currentUserId, String currentRole) {
+        return (userId != null && userId == currentUserId) || RoleInterceptor.hasAnyRole(currentRole, "manager", "finance");
+    }
+
+    private Map<Integer, MenuItem> lookupCachedMenuItems(Set<Integer> menuItemIds) {
+        Map<Integer, MenuItem> cached = todayMenuCache.get().getItemsById();
+        Map<Integer, MenuItem> result = new HashMap<>();
+        Set<Integer> missing = new HashSet<>();
+        for (Integer id : menuItemIds) {
+            MenuItem item = cached.get(id);
+            if (item != null) {
+                result.put(id, item);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            result.putAll(menuItemDAO.getMenuItemsByIds(missing));
+        }
+        return result;
+    }
+
+    /**
+     * 当天已有订单：带幂等键的请求视为重试，返回已有订单；否则按原逻辑报错
+     */
+    private ResponseEntity<?> alreadyOrdered(int userId, Date orderDate, String idempotencyKey) {
+        if (idempotencyKey != null) {
+            // 只有当天订单正是由同一个 Idempotency-Key 创建时才视为重试；其他键（另一个浏览器、另一份订单）仍按重复下单处理
+            Order existing = orderDAO.getOrderByIdempotencyKey(userId, orderDate, idempotencyKey);
+            if (existing != null) {
+                idempotencyCache.put(userId, idempotencyKey, existing);
+                return ResponseEntity.ok(existing);
+            }
+        }
+        return ResponseEntity.badRequest().body("already_ordered_today");
+    }
+
     // DTO
     public static class CreateOrderRequest {
         private Integer userId;
@@ -251,6 +404,13 @@ public class OrderController {
         }
     }
 
+    public record AvailabilityResponse(String orderDate, boolean deadlinePassed, boolean hasOrderedToday,
+                                       String orderDeadline, String deliveryStartTime) {
+    }
+
+    public record IntakeResponse(String token, String status, Integer orderId, String reason) {
+    }
+
     public static class OrderDetailResponse {
         private Order order;
         private List<OrderItem> items;
@@ -1,5 +1,6 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.RequireRole;
 import com.enterprise.catering.dao.RecipeDAO;
 import com.enterprise.catering.model.Recipe;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +17,7 @@ import java.util.Map;
  */
 @RestController
 @RequestMapping("/api/recipes")
+@RequireRole("manager")
 public class RecipeController {
 
     @Autowired
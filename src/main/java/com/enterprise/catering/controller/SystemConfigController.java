@@ -1,51 +1,57 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.RequireRole;
+import com.enterprise.catering.service.SystemConfigService;
+import com.enterprise.catering.util.SystemTimeConfig;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
+import java.time.format.DateTimeParseException;
 import java.util.Map;
 
 /**
- * 系统配置接口
+ * 系统配置接口。
+ * 配置持久化在 system_config 表，读取走 SystemConfigService 的本地快照。
  */
 @RestController
 @RequestMapping("/api/config")
 public class SystemConfigController {
 
-    private static final Map<String, String> systemConfig = new HashMap<>();
-
-    static {
-        systemConfig.put("order_deadline", "09:00");
-        systemConfig.put("delivery_start_time", "11:30");
-    }
+    @Autowired
+    private SystemConfigService systemConfigService;
 
     @GetMapping
     public ResponseEntity<Map<String, String>> getConfig() {
-        return ResponseEntity.ok(systemConfig);
+        return ResponseEntity.ok(SystemConfigService.current().toMap());
     }
 
     @PostMapping
+    @RequireRole("manager")
     public ResponseEntity<?> update(@RequestBody Map<String, String> body) {
         String orderDeadline = body.get("order_deadline");
         String deliveryStartTime = body.get("delivery_start_time");
 
-        if (orderDeadline != null && !orderDeadline.isEmpty()) {
-            systemConfig.put("order_deadline", orderDeadline);
+        try {
+            SystemTimeConfig updated = systemConfigService.update(orderDeadline, deliveryStartTime);
+            return ResponseEntity.ok(updated.toMap());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("invalid_time_format");
         }
-        if (deliveryStartTime != null && !deliveryStartTime.isEmpty()) {
-            systemConfig.put("delivery_start_time", deliveryStartTime);
-        }
-        return ResponseEntity.ok(systemConfig);
+    }
+
+    /**
+     * 当前时间配置快照（热点路径直接读取，无需加锁、不访问数据库）
+     */
+    public static SystemTimeConfig getTimeConfig() {
+        return SystemConfigService.current();
     }
 
     public static String getOrderDeadline() {
-        return systemConfig.getOrDefault("order_deadline", "09:00");
+        return SystemConfigService.current().getOrderDeadlineText();
     }
 
     public static String getDeliveryStartTime() {
-        return systemConfig.getOrDefault("delivery_start_time", "11:30");
+        return SystemConfigService.current().getDeliveryStartTimeText();
     }
 }
-
-
@@ -1,26 +1,38 @@
 package com.enterprise.catering.controller;
 
+import com.enterprise.catering.config.RequireRole;
 import com.enterprise.catering.dao.UserDAO;
 import com.enterprise.catering.model.User;
+import com.enterprise.catering.service.AuthTokenService;
+import com.enterprise.catering.service.PasswordService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * 用户管理相关接口
- * 这里假定只有餐厅经理在前端界面中可以访问这些接口。
+ * 仅餐厅经理可访问；用户列表同时开放给财务（员工订单汇总页面需要选择员工）。
  */
 @RestController
 @RequestMapping("/api/users")
+@RequireRole("manager")
 public class UserController {
 
     @Autowired
     private UserDAO userDAO;
 
+    @Autowired
+    private PasswordService passwordService;
+
+    @Autowired
+    private AuthTokenService authTokenService;
+
     @GetMapping
+    @RequireRole({"manager", "finance"})
     public ResponseEntity<List<User>> listUsers() {
         return ResponseEntity.ok(userDAO.getAllUsers());
     }
@@ -38,6 +50,10 @@ public class UserController {
             }
         }
         
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return ResponseEntity.badRequest().body("empty_password");
+        }
+        user.setPassword(passwordService.hash(user.getPassword()));
         boolean success = userDAO.addUser(user);
         return success ? ResponseEntity.ok().build() :
                 ResponseEntity.badRequest().body("add_failed");
@@ -58,7 +74,19 @@ public class UserController {
             }
         }
         
+        // 密码留空表示不修改（保留原密码），填写了才重新计算哈希
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            user.setPassword(null);
+        } else {
+            user.setPassword(passwordService.hash(user.getPassword()));
+        }
+        User existing = userDAO.findById(id);
         boolean success = userDAO.updateUser(user);
+        // 角色或密码变更后，该用户已签发的令牌全部失效，需重新登录（令牌中的角色以登录时为准）
+        if (success && (user.getPassword() != null || existing == null
+                || !Objects.equals(existing.getRole(), user.getRole()))) {
+            authTokenService.revokeUser(id);
+        }
         return success ? ResponseEntity.ok().build() :
                 ResponseEntity.badRequest().body("update_failed");
     }
@@ -66,6 +94,9 @@ public class UserController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteUser(@PathVariable int id) {
         boolean success = userDAO.deleteUser(id);
+        if (success) {
+            authTokenService.revokeUser(id);
+        }
         return success ? ResponseEntity.ok().build() :
                 ResponseEntity.badRequest().body("delete_failed");
     }
@@ -125,7 +156,7 @@ public class UserController {
                 }
             }
             
-            User user = new User(name, loginName, password, phone, department, workstation, role);
+            User user = new User(name, loginName, passwordService.hash(password), phone, department, workstation, role);
             boolean success = userDAO.addUser(user);
             if (success) {
                 successCount++;
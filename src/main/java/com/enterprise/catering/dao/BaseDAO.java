@@ -1,17 +1,45 @@
 package com.enterprise.catering.dao;
 
+import com.enterprise.catering.model.OrderItem;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 
 public class BaseDAO {
     @Autowired
     protected JdbcTemplate jdbcTemplate;
-}
-
-
-
-
-
-
 
+    // 汇总行的排序规则：保证并发事务按相同顺序加锁，避免死锁
+    private static final Comparator<OrderItem> ITEM_KEY_ORDER = Comparator
+            .comparing((OrderItem item) -> item.getName())
+            .thenComparing(OrderItem::getUnit)
+            .thenComparingDouble(OrderItem::getPrice);
+
+    /**
+     * 按 菜名+单位+单价 合并订单项（单位为空时记为 ""），并按该键排序，供各汇总表 upsert 使用
+     */
+    protected static List<OrderItem> mergeByItemKey(List<OrderItem> orderItems) {
+        Map<String, OrderItem> merged = new LinkedHashMap<>();
+        for (OrderItem item : orderItems) {
+            String unit = item.getUnit() != null ? item.getUnit() : "";
+            String key = item.getName() + "\u0000" + unit + "\u0000" + item.getPrice();
+            OrderItem existing = merged.get(key);
+            if (existing == null) {
+                merged.put(key, new OrderItem(null, item.getMenuItemId(), item.getName(), unit,
+                        item.getQuantity(), item.getPrice(), item.getSubtotal()));
+            } else {
+                existing.setQuantity(existing.getQuantity() + item.getQuantity());
+                existing.setSubtotal(existing.getSubtotal() + item.getSubtotal());
+            }
+        }
+        List<OrderItem> rows = new ArrayList<>(merged.values());
+        rows.sort(ITEM_KEY_ORDER);
+        return rows;
+    }
+}
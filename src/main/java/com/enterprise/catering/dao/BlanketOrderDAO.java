@@ -1,59 +1,90 @@
 package com.enterprise.catering.dao;
 
 import com.enterprise.catering.model.BlanketOrder;
+import com.enterprise.catering.model.OrderItem;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.Date;
 import java.util.List;
 
 
+/**
+ * 总括订单（按日期、菜品汇总）。
+ * blanket_orders 表在下单时增量维护，厨房看板和导出直接读取汇总行。
+ */
 @Repository
 public class BlanketOrderDAO extends BaseDAO {
 
-    public boolean generateBlanketOrder(Date date) {
-        try {
-            // 尝试删除旧数据（如果表存在）
-            String deleteSql = "DELETE FROM blanket_orders WHERE date = ?";
-            try {
-                jdbcTemplate.update(deleteSql, new java.sql.Date(date.getTime()));
-            } catch (Exception e) {
-                // blanket_orders 表可能不存在，将直接从订单表查询
+    /**
+     * 将一张订单的订单项累加到当日汇总行（按 日期+菜名+单位+单价 upsert），
+     * 应与订单写入处于同一事务中。
+     */
+    public void addOrderItems(Date mealDate, List<OrderItem> orderItems) {
+        if (orderItems == null || orderItems.isEmpty()) {
+            return;
+        }
+        // 合并同一张订单中重复的菜品，并按汇总键排序
+        List<OrderItem> rows = mergeByItemKey(orderItems);
+
+        java.sql.Date date = new java.sql.Date(mealDate.getTime());
+        String sql = "INSERT INTO blanket_orders (date, item_name, unit, total_quantity, price, subtotal) " +
+                "VALUES (?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE total_quantity = total_quantity + VALUES(total_quantity), " +
+                "subtotal = subtotal + VALUES(subtotal)";
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OrderItem row = rows.get(i);
+                ps.setDate(1, date);
+                ps.setString(2, row.getName());
+                ps.setString(3, row.getUnit());
+                ps.setInt(4, row.getQuantity());
+                ps.setDouble(5, row.getPrice());
+                ps.setDouble(6, row.getSubtotal());
             }
 
-            // 尝试插入新数据（如果表存在）
-            String insertSql = "INSERT INTO blanket_orders (date, item_name, unit, total_quantity, price, subtotal) " +
-                    "SELECT o.meal_date, oi.name, oi.unit, SUM(oi.quantity), oi.price, SUM(oi.subtotal) " +
-                    "FROM orders o " +
-                    "JOIN order_items oi ON o.id = oi.order_id " +
-                    "WHERE o.meal_date = ? " +
-                    "GROUP BY oi.name, oi.unit, oi.price";
-            try {
-                jdbcTemplate.update(insertSql, new java.sql.Date(date.getTime()));
-                return true;
-            } catch (Exception e) {
-                // 无法保存到 blanket_orders 表，但查询时会直接从订单表读取
-                return true;
+            @Override
+            public int getBatchSize() {
+                return rows.size();
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
-        }
+        });
     }
 
-    public List<BlanketOrder> getBlanketOrdersByDate(Date date) {
-        String sql = "SELECT oi.name, oi.unit, SUM(oi.quantity) as total_quantity, " +
-                "oi.price, SUM(oi.subtotal) as subtotal " +
+    /**
+     * 根据订单表重新生成某日的总括订单（用于历史数据补录或修复汇总偏差），
+     * 删除与重建在同一事务中完成，失败时抛出异常并回滚。
+     */
+    @Transactional
+    public boolean generateBlanketOrder(Date date) {
+        java.sql.Date day = new java.sql.Date(date.getTime());
+        jdbcTemplate.update("DELETE FROM blanket_orders WHERE date = ?", day);
+
+        String insertSql = "INSERT INTO blanket_orders (date, item_name, unit, total_quantity, price, subtotal) " +
+                "SELECT o.meal_date, oi.name, COALESCE(oi.unit, ''), SUM(oi.quantity), oi.price, SUM(oi.subtotal) " +
                 "FROM orders o " +
                 "JOIN order_items oi ON o.id = oi.order_id " +
                 "WHERE o.meal_date = ? " +
-                "GROUP BY oi.name, oi.unit, oi.price " +
-                "ORDER BY oi.name";
+                "GROUP BY o.meal_date, oi.name, COALESCE(oi.unit, ''), oi.price";
+        jdbcTemplate.update(insertSql, day);
+        return true;
+    }
+
+    @Transactional(readOnly = true)
+    public List<BlanketOrder> getBlanketOrdersByDate(Date date) {
+        String sql = "SELECT item_name, unit, total_quantity, price, subtotal " +
+                "FROM blanket_orders " +
+                "WHERE date = ? " +
+                "ORDER BY item_name";
         
         List<BlanketOrder> blanketOrders = jdbcTemplate.query(sql, 
             (rs, rowNum) -> {
                 BlanketOrder blanketOrder = new BlanketOrder();
                 blanketOrder.setDate(date);
-                blanketOrder.setItemName(rs.getString("name"));
+                blanketOrder.setItemName(rs.getString("item_name"));
                 blanketOrder.setUnit(rs.getString("unit"));
                 blanketOrder.setTotalQuantity(rs.getInt("total_quantity"));
                 blanketOrder.setPrice(rs.getDouble("price"));
@@ -65,11 +96,9 @@ public class BlanketOrderDAO extends BaseDAO {
         return blanketOrders;
     }
 
+    @Transactional(readOnly = true)
     public double calculateTotalAmount(Date date) {
-        String sql = "SELECT SUM(oi.subtotal) AS total " +
-                "FROM orders o " +
-                "JOIN order_items oi ON o.id = oi.order_id " +
-                "WHERE o.meal_date = ?";
+        String sql = "SELECT SUM(subtotal) AS total FROM blanket_orders WHERE date = ?";
         Double total = jdbcTemplate.queryForObject(sql, Double.class, new java.sql.Date(date.getTime()));
         return total != null ? total : 0.0;
     }
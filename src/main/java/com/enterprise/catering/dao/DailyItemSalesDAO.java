@@ -0,0 +1,83 @@
+package com.enterprise.catering.dao;
+
+import com.enterprise.catering.model.Order;
+import com.enterprise.catering.model.OrderItem;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+
+/**
+ * 每日菜品销售汇总（daily_item_sales）：按 日期+用户+菜名+单位+单价 汇总，
+ * 下单时增量写入，夜间任务按订单表重建，财务报表只对汇总行求和。
+ */
+@Repository
+public class DailyItemSalesDAO extends BaseDAO {
+
+    private static final Comparator<Object[]> ROW_KEY_ORDER = Comparator
+            .comparing((Object[] row) -> (java.sql.Date) row[0])
+            .thenComparing(row -> (Integer) row[1])
+            .thenComparing(row -> (String) row[2])
+            .thenComparing(row -> (String) row[3])
+            .thenComparing(row -> (Double) row[4]);
+
+    /**
+     * 将一张订单的订单项累加到汇总行，应与订单写入处于同一事务中
+     */
+    public void addOrderItems(Date mealDate, int userId, List<OrderItem> orderItems) {
+        addOrders(Collections.singletonList(new Order(userId, null, null, mealDate, null)),
+                Collections.singletonList(orderItems));
+    }
+
+    /**
+     * 将一批订单的订单项累加到汇总行（一次批处理），itemsPerOrder 与 orders 一一对应
+     */
+    public void addOrders(List<Order> orders, List<List<OrderItem>> itemsPerOrder) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            List<OrderItem> items = itemsPerOrder.get(i);
+            if (items == null || items.isEmpty()) {
+                continue;
+            }
+            java.sql.Date date = new java.sql.Date(order.getMealDate().getTime());
+            for (OrderItem row : mergeByItemKey(items)) {
+                rows.add(new Object[] {date, order.getUserId(), row.getName(), row.getUnit(),
+                        row.getPrice(), row.getQuantity(), row.getSubtotal()});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        // 按唯一键排序，保证并发事务按相同顺序加锁
+        rows.sort(ROW_KEY_ORDER);
+
+        String sql = "INSERT INTO daily_item_sales (meal_date, user_id, name, unit, price, qty, amount) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE qty = qty + VALUES(qty), amount = amount + VALUES(amount)";
+        jdbcTemplate.batchUpdate(sql, rows);
+    }
+
+    /**
+     * 根据订单表重建某日的汇总行（夜间压实任务或历史数据补录使用）
+     */
+    @Transactional
+    public void rebuildForDate(Date date) {
+        java.sql.Date day = new java.sql.Date(date.getTime());
+        jdbcTemplate.update("DELETE FROM daily_item_sales WHERE meal_date = ?", day);
+
+        String insertSql = "INSERT INTO daily_item_sales (meal_date, user_id, name, unit, price, qty, amount) " +
+                "SELECT o.meal_date, o.user_id, oi.name, COALESCE(oi.unit, ''), oi.price, " +
+                "SUM(oi.quantity), SUM(oi.subtotal) " +
+                "FROM orders o " +
+                "JOIN order_items oi ON o.id = oi.order_id " +
+                "WHERE o.meal_date = ? " +
+                "GROUP BY o.meal_date, o.user_id, oi.name, COALESCE(oi.unit, ''), oi.price";
+        jdbcTemplate.update(insertSql, day);
+    }
+}
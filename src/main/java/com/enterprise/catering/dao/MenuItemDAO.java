@@ -8,7 +8,12 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Repository
 public class MenuItemDAO {
@@ -52,6 +57,27 @@ public class MenuItemDAO {
         }
     }
 
+    /**
+     * 按 ID 批量查询菜单项，一次 IN (...) 查询，返回以 ID 为键的 Map
+     */
+    public Map<Integer, MenuItem> getMenuItemsByIds(Collection<Integer> ids) {
+        Map<Integer, MenuItem> result = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+        try {
+            String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+            String sql = "SELECT * FROM menu_items WHERE id IN (" + placeholders + ")";
+            List<MenuItem> items = jdbcTemplate.query(sql, MENU_ITEM_ROW_MAPPER, ids.toArray());
+            for (MenuItem item : items) {
+                result.put(item.getId(), item);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
     public List<MenuItem> getActiveMenuItems() {
         try {
             String sql = "SELECT mi.* FROM menu_items mi " +
@@ -74,6 +100,23 @@ public class MenuItemDAO {
         }
     }
 
+    /**
+     * 按菜单 ID 批量查询菜单项，返回 菜单ID -> 菜单项列表
+     */
+    public Map<Integer, List<MenuItem>> getMenuItemsByMenuIds(Collection<Integer> menuIds) {
+        Map<Integer, List<MenuItem>> result = new HashMap<>();
+        if (menuIds == null || menuIds.isEmpty()) {
+            return result;
+        }
+        String placeholders = menuIds.stream().map(id -> "?").collect(Collectors.joining(", "));
+        String sql = "SELECT * FROM menu_items WHERE menu_id IN (" + placeholders + ") ORDER BY id";
+        List<MenuItem> items = jdbcTemplate.query(sql, MENU_ITEM_ROW_MAPPER, menuIds.toArray());
+        for (MenuItem item : items) {
+            result.computeIfAbsent(item.getMenuId(), k -> new ArrayList<>()).add(item);
+        }
+        return result;
+    }
+
     public void addMenuItem(MenuItem menuItem) {
         String sql = "INSERT INTO menu_items (menu_id, recipe_id, name, image, unit, price) VALUES (?, ?, ?, ?, ?, ?)";
         int rowsAffected = jdbcTemplate.update(sql, 
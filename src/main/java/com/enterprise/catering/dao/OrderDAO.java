@@ -3,11 +3,14 @@ package com.enterprise.catering.dao;
 import com.enterprise.catering.model.Order;
 import com.enterprise.catering.model.OrderItem;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.*;
 import java.util.Calendar;
@@ -16,6 +19,9 @@ import java.util.List;
 
 @Repository
 public class OrderDAO {
+    // 导出时每批从数据库游标读取的行数（需在连接串中开启 useCursorFetch）
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
@@ -53,7 +59,7 @@ public class OrderDAO {
     };
 
     public void addOrder(Order order) {
-        String sql = "INSERT INTO orders (user_id, user_name, phone, work_location, meal_date, total_price) VALUES (?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO orders (user_id, user_name, phone, work_location, meal_date, total_price, idempotency_key) VALUES (?, ?, ?, ?, ?, ?, ?)";
         
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcTemplate.update(connection -> {
@@ -64,6 +70,7 @@ public class OrderDAO {
             ps.setString(4, order.getWorkLocation());
             ps.setDate(5, new java.sql.Date(order.getMealDate().getTime()));
             ps.setDouble(6, order.getTotalPrice());
+            ps.setString(7, order.getIdempotencyKey());
             return ps;
         }, keyHolder);
         
@@ -75,6 +82,48 @@ public class OrderDAO {
         }
     }
 
+    /**
+     * 批量插入订单（一次 JDBC 批处理），并回填各订单生成的 ID
+     */
+    public void addOrders(List<Order> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO orders (user_id, user_name, phone, work_location, meal_date, total_price, idempotency_key) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Order order = orders.get(i);
+                    ps.setInt(1, order.getUserId());
+                    ps.setString(2, order.getUserName());
+                    ps.setString(3, order.getPhone());
+                    ps.setString(4, order.getWorkLocation());
+                    ps.setDate(5, new java.sql.Date(order.getMealDate().getTime()));
+                    ps.setDouble(6, order.getTotalPrice());
+                    ps.setString(7, order.getIdempotencyKey());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return orders.size();
+                }
+            },
+            keyHolder);
+
+        List<java.util.Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != orders.size()) {
+            throw new RuntimeException("Creating orders failed, expected " + orders.size() + " IDs but got " + keys.size());
+        }
+        for (int i = 0; i < orders.size(); i++) {
+            Number key = (Number) keys.get(i).values().iterator().next();
+            orders.get(i).setId(key.intValue());
+        }
+    }
+
     public void addOrderItem(OrderItem orderItem) {
         String sql = "INSERT INTO order_items (order_id, menu_item_id, name, unit, quantity, price, subtotal) " +
                 "VALUES (?, ?, ?, ?, ?, ?, ?)";
@@ -88,6 +137,47 @@ public class OrderDAO {
             orderItem.getSubtotal());
     }
 
+    /**
+     * 批量插入订单项：一次 JDBC 批处理完成，避免逐条往返数据库
+     */
+    public void addOrderItems(List<OrderItem> orderItems) {
+        if (orderItems == null || orderItems.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO order_items (order_id, menu_item_id, name, unit, quantity, price, subtotal) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OrderItem item = orderItems.get(i);
+                ps.setInt(1, item.getOrderId());
+                ps.setInt(2, item.getMenuItemId());
+                ps.setString(3, item.getName());
+                ps.setString(4, item.getUnit());
+                ps.setInt(5, item.getQuantity());
+                ps.setDouble(6, item.getPrice());
+                ps.setDouble(7, item.getSubtotal());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return orderItems.size();
+            }
+        });
+    }
+
+    /**
+     * 在同一事务中写入订单及其全部订单项，任一步失败则整体回滚，不会留下半张订单
+     */
+    @Transactional
+    public void addOrderWithItems(Order order, List<OrderItem> orderItems) {
+        addOrder(order);
+        for (OrderItem orderItem : orderItems) {
+            orderItem.setOrderId(order.getId());
+        }
+        addOrderItems(orderItems);
+    }
+
     public List<Order> getOrdersByUserId(int userId) {
         try {
             String sql = "SELECT * FROM orders WHERE user_id = ? ORDER BY order_time DESC";
@@ -98,6 +188,7 @@ public class OrderDAO {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         try {
             String sql = "SELECT * FROM orders ORDER BY order_time DESC";
@@ -121,6 +212,46 @@ public class OrderDAO {
         }
     }
 
+    /**
+     * 根据日期获取该日所有订单，并补全工位信息：
+     * 优先使用订单中保存的工位，为空时取用户表中的工位（一次联表查询完成）
+     */
+    public List<Order> getOrdersWithWorkLocationByDate(Date date) {
+        try {
+            String sql = "SELECT o.id, o.user_id, o.user_name, o.phone, " +
+                    "COALESCE(NULLIF(o.work_location, ''), u.workstation) AS work_location, " +
+                    "o.order_time, o.meal_date, o.total_price, o.created_at " +
+                    "FROM orders o " +
+                    "LEFT JOIN users u ON o.user_id = u.id " +
+                    "WHERE o.meal_date = ? ORDER BY o.user_name";
+            return jdbcTemplate.query(sql, ORDER_ROW_MAPPER, new java.sql.Date(date.getTime()));
+        } catch (Exception e) {
+            e.printStackTrace();
+            return java.util.Collections.emptyList();
+        }
+    }
+
+    /**
+     * 逐行读取某日所有订单及其订单项（orders LEFT JOIN order_items），按订单排序，
+     * 通过数据库游标分批读取，内存占用与订单量无关。没有订单项的订单 item_id 为 NULL。
+     */
+    @Transactional(readOnly = true)
+    public void streamOrderLinesByDate(Date date, RowCallbackHandler handler) {
+        String sql = "SELECT o.id AS order_id, o.user_name, o.phone, o.order_time, o.total_price, " +
+                "oi.id AS item_id, oi.name, oi.unit, oi.quantity, oi.price, oi.subtotal " +
+                "FROM orders o " +
+                "LEFT JOIN order_items oi ON oi.order_id = o.id " +
+                "WHERE o.meal_date = ? " +
+                "ORDER BY o.user_name, o.id, oi.id";
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(EXPORT_FETCH_SIZE);
+            ps.setDate(1, new java.sql.Date(date.getTime()));
+            return ps;
+        }, handler);
+    }
+
     public List<Order> getOrdersByUserIdAndMonth(int userId, Date monthDate) {
         try {
             Calendar cal = Calendar.getInstance();
@@ -163,6 +294,26 @@ public class OrderDAO {
         }
     }
 
+    public Order getOrderByUserIdAndDate(int userId, Date date) {
+        try {
+            String sql = "SELECT * FROM orders WHERE user_id = ? AND meal_date = ?";
+            List<Order> orders = jdbcTemplate.query(sql, ORDER_ROW_MAPPER, userId, new java.sql.Date(date.getTime()));
+            return orders.isEmpty() ? null : orders.get(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 当天由指定 Idempotency-Key 的请求创建的订单（用于识别重试），不存在时返回 null
+     */
+    public Order getOrderByIdempotencyKey(int userId, Date date, String idempotencyKey) {
+        String sql = "SELECT * FROM orders WHERE user_id = ? AND meal_date = ? AND idempotency_key = ?";
+        List<Order> orders = jdbcTemplate.query(sql, ORDER_ROW_MAPPER, userId, new java.sql.Date(date.getTime()), idempotencyKey);
+        return orders.isEmpty() ? null : orders.get(0);
+    }
+
     public boolean hasOrderByUserIdAndDate(int userId, Date date) {
         try {
             String sql = "SELECT COUNT(*) FROM orders WHERE user_id = ? AND meal_date = ?";
@@ -0,0 +1,58 @@
+package com.enterprise.catering.dao;
+
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * 无状态令牌模式下的吊销记录：
+ * - revoked_tokens      : 已注销的会话ID
+ * - revoked_user_tokens : 按用户吊销，revoked_before 之前登录的令牌全部失效
+ * 只需保留到相关令牌全部过期为止，过期记录定期清理，表始终很小。
+ */
+@Repository
+public class RevokedTokenDAO extends BaseDAO {
+
+    public void revoke(String tokenId, Date expiresAt) {
+        String sql = "INSERT INTO revoked_tokens (token_id, expires_at) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE expires_at = VALUES(expires_at)";
+        jdbcTemplate.update(sql, tokenId, new Timestamp(expiresAt.getTime()));
+    }
+
+    /**
+     * 尚未过期的吊销令牌 ID
+     */
+    public List<String> getActiveTokenIds(Date now) {
+        String sql = "SELECT token_id FROM revoked_tokens WHERE expires_at > ?";
+        return jdbcTemplate.queryForList(sql, String.class, new Timestamp(now.getTime()));
+    }
+
+    public void revokeUser(int userId, Date revokedBefore, Date expiresAt) {
+        String sql = "INSERT INTO revoked_user_tokens (user_id, revoked_before, expires_at) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE revoked_before = VALUES(revoked_before), expires_at = VALUES(expires_at)";
+        jdbcTemplate.update(sql, userId, new Timestamp(revokedBefore.getTime()), new Timestamp(expiresAt.getTime()));
+    }
+
+    /**
+     * 尚未过期的按用户吊销记录：用户ID -> revoked_before（毫秒）
+     */
+    public Map<Integer, Long> getActiveUserRevocations(Date now) {
+        String sql = "SELECT user_id, revoked_before FROM revoked_user_tokens WHERE expires_at > ?";
+        Map<Integer, Long> result = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            result.put(rs.getInt("user_id"), rs.getTimestamp("revoked_before").getTime());
+        }, new Timestamp(now.getTime()));
+        return result;
+    }
+
+    public int deleteExpired(Date now) {
+        Timestamp timestamp = new Timestamp(now.getTime());
+        jdbcTemplate.update("DELETE FROM revoked_user_tokens WHERE expires_at <= ?", timestamp);
+        return jdbcTemplate.update("DELETE FROM revoked_tokens WHERE expires_at <= ?", timestamp);
+    }
+}
@@ -0,0 +1,37 @@
+package com.enterprise.catering.dao;
+
+import com.enterprise.catering.util.SystemTimeConfig;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+
+/**
+ * system_config 表（单行，id = 1）读写。
+ * 每次修改 version 加一，各节点据此判断是否需要重新加载。
+ */
+@Repository
+public class SystemConfigDAO extends BaseDAO {
+
+    public SystemTimeConfig getTimeConfig() {
+        String sql = "SELECT order_deadline, delivery_start_time, version FROM system_config WHERE id = 1";
+        List<SystemTimeConfig> configs = jdbcTemplate.query(sql, (rs, rowNum) -> SystemTimeConfig.of(
+                rs.getString("order_deadline"),
+                rs.getString("delivery_start_time"),
+                rs.getLong("version")));
+        return configs.isEmpty() ? null : configs.get(0);
+    }
+
+    public Long getVersion() {
+        String sql = "SELECT version FROM system_config WHERE id = 1";
+        List<Long> versions = jdbcTemplate.queryForList(sql, Long.class);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    public void updateTimeConfig(SystemTimeConfig config) {
+        String sql = "INSERT INTO system_config (id, order_deadline, delivery_start_time, version) VALUES (1, ?, ?, 1) " +
+                "ON DUPLICATE KEY UPDATE order_deadline = VALUES(order_deadline), " +
+                "delivery_start_time = VALUES(delivery_start_time), version = version + 1";
+        jdbcTemplate.update(sql, config.getOrderDeadlineText(), config.getDeliveryStartTimeText());
+    }
+}
@@ -6,7 +6,11 @@ import org.springframework.stereotype.Repository;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 
 @Repository
@@ -28,22 +32,37 @@ public class UserDAO extends BaseDAO {
         }
     };
 
-    public User login(String loginName, String password) {
-        String sql = "SELECT * FROM users WHERE login_name = ? AND password = ?";
-        List<User> users = jdbcTemplate.query(sql, USER_ROW_MAPPER, loginName, password);
+    /**
+     * 按登录名查询（login_name 唯一索引），密码由 AuthService 校验
+     */
+    public User findByLoginName(String loginName) {
+        String sql = "SELECT * FROM users WHERE login_name = ?";
+        List<User> users = jdbcTemplate.query(sql, USER_ROW_MAPPER, loginName);
         return users.isEmpty() ? null : users.get(0);
     }
 
-    public User authenticate(String loginName, String password) {
-        return login(loginName, password);
-    }
-
     public User findById(int id) {
         String sql = "SELECT * FROM users WHERE id = ?";
         List<User> users = jdbcTemplate.query(sql, USER_ROW_MAPPER, id);
         return users.isEmpty() ? null : users.get(0);
     }
 
+    /**
+     * 按 ID 批量查询用户，返回以 ID 为键的 Map
+     */
+    public Map<Integer, User> findByIds(Collection<Integer> ids) {
+        Map<Integer, User> result = new HashMap<>();
+        if (ids == null || ids.isEmpty()) {
+            return result;
+        }
+        String placeholders = ids.stream().map(id -> "?").collect(Collectors.joining(", "));
+        String sql = "SELECT * FROM users WHERE id IN (" + placeholders + ")";
+        for (User user : jdbcTemplate.query(sql, USER_ROW_MAPPER, ids.toArray())) {
+            result.put(user.getId(), user);
+        }
+        return result;
+    }
+
     public boolean addUser(User user) {
         String sql = "INSERT INTO users (name, login_name, password, phone, department, workstation, role) VALUES (?, ?, ?, ?, ?, ?, ?)";
         int result = jdbcTemplate.update(sql, 
@@ -57,7 +76,21 @@ public class UserDAO extends BaseDAO {
         return result > 0;
     }
 
+    /**
+     * 更新用户信息；password 为 null 时不修改密码
+     */
     public boolean updateUser(User user) {
+        if (user.getPassword() == null) {
+            String sql = "UPDATE users SET name=?, login_name=?, phone=?, department=?, workstation=?, role=? WHERE id=?";
+            return jdbcTemplate.update(sql,
+                user.getName(),
+                user.getLoginName(),
+                user.getPhone(),
+                user.getDepartment(),
+                user.getWorkstation(),
+                user.getRole(),
+                user.getId()) > 0;
+        }
         String sql = "UPDATE users SET name=?, login_name=?, password=?, phone=?, department=?, workstation=?, role=? WHERE id=?";
         int result = jdbcTemplate.update(sql, 
             user.getName(), 
@@ -71,6 +104,11 @@ public class UserDAO extends BaseDAO {
         return result > 0;
     }
 
+    public boolean updatePassword(int id, String passwordHash) {
+        String sql = "UPDATE users SET password=? WHERE id=?";
+        return jdbcTemplate.update(sql, passwordHash, id) > 0;
+    }
+
     public boolean deleteUser(int id) {
         String sql = "DELETE FROM users WHERE id=?";
         int result = jdbcTemplate.update(sql, id);
@@ -1,5 +1,7 @@
 package com.enterprise.catering.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.Date;
 
 public class Order {
@@ -12,6 +14,10 @@ public class Order {
     private Date mealDate;
     private Double totalPrice;
     private Date createdAt;
+    // 创建该订单的请求携带的 Idempotency-Key，用于判断重复提交是否为同一请求的重试；
+    // 只在服务端使用，不出现在任何响应中
+    @JsonIgnore
+    private String idempotencyKey;
 
     public Order() {
     }
@@ -97,6 +103,14 @@ public class Order {
     public void setCreatedAt(Date createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
 }
 
 
@@ -1,10 +1,13 @@
 package com.enterprise.catering.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class User {
     private int id;
     private String name;
     private String loginName;
+    // 只接收（新增、修改用户时提交），不输出到任何 JSON 响应，避免泄露密码哈希
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private String phone;
     private String department;
@@ -0,0 +1,40 @@
+package com.enterprise.catering.service;
+
+import com.enterprise.catering.dao.UserDAO;
+import com.enterprise.catering.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * 登录认证：按 login_name（唯一索引）取出用户，再用 PasswordService 校验密码。
+ * 明文旧密码或代价因子过低的哈希在登录成功后就地升级为当前配置的 BCrypt。
+ */
+@Service
+public class AuthService {
+
+    @Autowired
+    private UserDAO userDAO;
+
+    @Autowired
+    private PasswordService passwordService;
+
+    /**
+     * 校验成功返回用户（密码字段已清空，可直接放入 Session），否则返回 null
+     */
+    public User authenticate(String loginName, String password) {
+        User user = userDAO.findByLoginName(loginName);
+        if (user == null || !passwordService.matches(password, user.getPassword())) {
+            return null;
+        }
+        if (passwordService.needsRehash(user.getPassword())) {
+            try {
+                userDAO.updatePassword(user.getId(), passwordService.hash(password));
+            } catch (Exception e) {
+                // 升级失败不影响本次登录，下次登录再试
+                System.err.println("升级密码哈希失败，用户ID: " + user.getId() + ", " + e.getMessage());
+            }
+        }
+        user.setPassword(null);
+        return user;
+    }
+}
@@ -0,0 +1,255 @@
+package com.enterprise.catering.service;
+
+import com.enterprise.catering.dao.RevokedTokenDAO;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 无状态令牌（catering.auth.mode=token）：
+ * - 令牌格式：密钥ID.载荷.签名，载荷为 userId|role|过期时间(秒)|会话ID|登录时间(毫秒) 的 Base64URL，签名为 HMAC-SHA256
+ * - 校验只做本地计算和内存查找，不依赖 HttpSession，也不访问数据库，各节点无需粘性会话
+ * - 续签沿用会话ID和登录时间，登录超过 max-session-hours 后不再续签，令牌到期后需重新登录
+ * - 密钥轮换：catering.auth.token.keys 中可同时配置多个 密钥ID:密钥，
+ *   新令牌用 active-key-id 签名，旧密钥在其签发的令牌全部过期（一个 ttl）后再删除
+ * - 吊销列表（各节点定时加载到内存，与系统配置的同步方式一致）：
+ *   注销时把会话ID写入 revoked_tokens 表，该会话续签出的所有令牌一并失效；
+ *   用户被删除、角色或密码变更时写入 revoked_user_tokens 表，该用户在此之前登录的令牌全部失效
+ */
+@Service
+public class AuthTokenService {
+
+    public static final String MODE_SESSION = "session";
+    public static final String MODE_TOKEN = "token";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private RevokedTokenDAO revokedTokenDAO;
+
+    @Value("${catering.auth.mode:session}")
+    private String mode;
+
+    @Value("${catering.auth.token.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${catering.auth.token.max-session-hours:12}")
+    private long maxSessionHours;
+
+    @Value("${catering.auth.token.active-key-id:}")
+    private String activeKeyId;
+
+    // 格式：k1:密钥1,k2:密钥2
+    @Value("${catering.auth.token.keys:}")
+    private String keyConfig;
+
+    private Map<String, SecretKeySpec> keys = Collections.emptyMap();
+    // 内存中的吊销列表快照，刷新时整体替换
+    private volatile Set<String> revokedIds = Collections.emptySet();
+    // 用户ID -> 该时间（毫秒）之前登录的令牌均已失效
+    private volatile Map<Integer, Long> revokedBefore = Collections.emptyMap();
+
+    @PostConstruct
+    public void init() {
+        if (!isTokenMode()) {
+            return;
+        }
+        Map<String, SecretKeySpec> parsed = new HashMap<>();
+        for (String entry : keyConfig.split(",")) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            String keyId = entry.substring(0, separator).trim();
+            byte[] secret = entry.substring(separator + 1).trim().getBytes(StandardCharsets.UTF_8);
+            if (secret.length < 32) {
+                System.err.println("令牌密钥 " + keyId + " 长度不足 32 字节，建议更换");
+            }
+            parsed.put(keyId, new SecretKeySpec(secret, HMAC_ALGORITHM));
+        }
+        if (parsed.isEmpty()) {
+            // 未配置密钥时使用随机密钥：重启后令牌全部失效，且多节点之间不能互认，仅用于开发环境
+            System.err.println("未配置 catering.auth.token.keys，使用进程内随机密钥");
+            byte[] secret = new byte[32];
+            RANDOM.nextBytes(secret);
+            activeKeyId = "local";
+            parsed.put(activeKeyId, new SecretKeySpec(secret, HMAC_ALGORITHM));
+        }
+        if (!parsed.containsKey(activeKeyId)) {
+            throw new IllegalStateException("catering.auth.token.active-key-id 未在 catering.auth.token.keys 中配置: " + activeKeyId);
+        }
+        keys = parsed;
+        refreshRevocations();
+    }
+
+    public boolean isTokenMode() {
+        return MODE_TOKEN.equalsIgnoreCase(mode);
+    }
+
+    public long getTtlSeconds() {
+        return ttlMinutes * 60;
+    }
+
+    /**
+     * 登录时签发令牌，开始一个新会话
+     */
+    public String issue(int userId, String role) {
+        byte[] sessionId = new byte[12];
+        RANDOM.nextBytes(sessionId);
+        return sign(userId, role, ENCODER.encodeToString(sessionId), System.currentTimeMillis());
+    }
+
+    /**
+     * 续签：沿用会话ID和登录时间；登录已超过最长会话时间时返回 null，不再续签
+     */
+    public String renew(TokenClaims claims) {
+        if (System.currentTimeMillis() - claims.issuedAt() >= getMaxSessionMillis()) {
+            return null;
+        }
+        return sign(claims.userId(), claims.role(), claims.sessionId(), claims.issuedAt());
+    }
+
+    private String sign(int userId, String role, String sessionId, long issuedAt) {
+        long expiresAt = System.currentTimeMillis() / 1000 + getTtlSeconds();
+        String payload = userId + "|" + role + "|" + expiresAt + "|" + sessionId + "|" + issuedAt;
+        String signingInput = activeKeyId + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        return signingInput + "." + ENCODER.encodeToString(sign(keys.get(activeKeyId), signingInput));
+    }
+
+    /**
+     * 校验签名、过期时间和吊销列表，通过时返回令牌内容，否则返回 null
+     */
+    public TokenClaims verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        int first = token.indexOf('.');
+        int last = token.lastIndexOf('.');
+        if (first <= 0 || last == first) {
+            return null;
+        }
+        SecretKeySpec key = keys.get(token.substring(0, first));
+        if (key == null) {
+            return null;
+        }
+        try {
+            String signingInput = token.substring(0, last);
+            byte[] signature = DECODER.decode(token.substring(last + 1));
+            if (!MessageDigest.isEqual(sign(key, signingInput), signature)) {
+                return null;
+            }
+            String payload = new String(DECODER.decode(token.substring(first + 1, last)), StandardCharsets.UTF_8);
+            String[] parts = payload.split("\\|");
+            if (parts.length != 5) {
+                return null;
+            }
+            int userId = Integer.parseInt(parts[0]);
+            long expiresAt = Long.parseLong(parts[2]);
+            long issuedAt = Long.parseLong(parts[4]);
+            if (expiresAt <= System.currentTimeMillis() / 1000 || revokedIds.contains(parts[3])) {
+                return null;
+            }
+            Long userRevokedBefore = revokedBefore.get(userId);
+            if (userRevokedBefore != null && issuedAt < userRevokedBefore) {
+                return null;
+            }
+            return new TokenClaims(userId, parts[1], expiresAt, parts[3], issuedAt);
+        } catch (IllegalArgumentException e) {
+            // Base64 或数字格式错误
+            return null;
+        }
+    }
+
+    /**
+     * 注销：吊销整个会话（包括之前续签时被替换、尚未过期的令牌），本节点立即生效，其他节点在下次刷新后生效
+     */
+    public void revoke(TokenClaims claims) {
+        revokedTokenDAO.revoke(claims.sessionId(), new Date(sessionExpiresAt(claims.issuedAt())));
+        Set<String> updated = new HashSet<>(revokedIds);
+        updated.add(claims.sessionId());
+        revokedIds = Collections.unmodifiableSet(updated);
+    }
+
+    /**
+     * 用户被删除、角色或密码变更：使该用户此前登录的所有令牌失效（需重新登录以取得新角色）。
+     * session 模式下不做任何处理
+     */
+    public void revokeUser(int userId) {
+        if (!isTokenMode()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        revokedTokenDAO.revokeUser(userId, new Date(now), new Date(sessionExpiresAt(now)));
+        Map<Integer, Long> updated = new HashMap<>(revokedBefore);
+        updated.put(userId, now);
+        revokedBefore = Collections.unmodifiableMap(updated);
+    }
+
+    /**
+     * 某次登录续签出的令牌最晚的过期时间（毫秒），吊销记录保留到此时即可
+     */
+    private long sessionExpiresAt(long issuedAt) {
+        return issuedAt + getMaxSessionMillis() + getTtlSeconds() * 1000;
+    }
+
+    private long getMaxSessionMillis() {
+        return maxSessionHours * 3_600_000L;
+    }
+
+    @Scheduled(fixedDelayString = "${catering.auth.token.revocation-refresh-ms:10000}")
+    public void refreshRevocations() {
+        if (!isTokenMode()) {
+            return;
+        }
+        try {
+            Date now = new Date();
+            revokedTokenDAO.deleteExpired(now);
+            revokedIds = Collections.unmodifiableSet(new HashSet<>(revokedTokenDAO.getActiveTokenIds(now)));
+            revokedBefore = Collections.unmodifiableMap(revokedTokenDAO.getActiveUserRevocations(now));
+        } catch (Exception e) {
+            System.err.println("刷新令牌吊销列表失败: " + e.getMessage());
+        }
+    }
+
+    private static byte[] sign(SecretKeySpec key, String signingInput) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(signingInput.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC 计算失败", e);
+        }
+    }
+
+    /**
+     * 令牌内容，expiresAt 为秒级时间戳，issuedAt 为登录时间（毫秒，续签不变）
+     */
+    public record TokenClaims(int userId, String role, long expiresAt, String sessionId, long issuedAt) {
+
+        /**
+         * 剩余有效期不足一半时续签
+         */
+        public boolean needsRenewal(long ttlSeconds) {
+            return expiresAt - System.currentTimeMillis() / 1000 < ttlSeconds / 2;
+        }
+    }
+}
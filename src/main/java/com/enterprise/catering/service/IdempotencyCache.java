@@ -0,0 +1,67 @@
+package com.enterprise.catering.service;
+
+import com.enterprise.catering.model.Order;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 下单幂等键缓存：按 用户ID + Idempotency-Key 记录已创建的订单，
+ * 客户端重试时直接返回原订单，不再重复校验和写库。
+ * 条目短期有效、数量有上限；跨节点或过期后的重试由 orders(user_id, meal_date) 唯一约束兜底。
+ */
+@Component
+public class IdempotencyCache {
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    @Value("${catering.idempotency.ttl-ms:600000}")
+    private long ttlMillis;
+    @Value("${catering.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    public Order get(int userId, String idempotencyKey) {
+        Entry entry = entries.get(key(userId, idempotencyKey));
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt < System.currentTimeMillis()) {
+            entries.remove(key(userId, idempotencyKey), entry);
+            return null;
+        }
+        return entry.order;
+    }
+
+    public void put(int userId, String idempotencyKey, Order order) {
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+            if (entries.size() >= maxEntries) {
+                // 仍然已满时不再缓存，重试请求由唯一约束兜底
+                return;
+            }
+        }
+        entries.put(key(userId, idempotencyKey), new Entry(order, System.currentTimeMillis() + ttlMillis));
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt < now);
+    }
+
+    private static String key(int userId, String idempotencyKey) {
+        return userId + ":" + idempotencyKey;
+    }
+
+    private static final class Entry {
+        private final Order order;
+        private final long expiresAt;
+
+        private Entry(Order order, long expiresAt) {
+            this.order = order;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.enterprise.catering.service;
+
+import com.enterprise.catering.dao.UserDAO;
+import com.enterprise.catering.model.Order;
+import com.enterprise.catering.model.OrderItem;
+import com.enterprise.catering.model.User;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 异步订单受理队列（订餐截止前的高峰期使用，需通过 catering.order-intake.async-enabled 开启）：
+ * - 请求线程同步完成校验后把订单放入有界队列，立即返回受理凭证（token）
+ * - 单个写线程从队列批量取出订单，以多行批处理写入数据库
+ * - 队列已满时拒绝受理（由接口返回 429）
+ * - 应用关闭时先停止受理，再把队列中的订单全部写完，保证已受理的订单都会落库
+ * - 单条订单连续写库失败时追加到本地溢出文件（JSON Lines）并告警，由定时任务和下次启动时重放，
+ *   已受理的订单不会被丢弃，重放成功前受理状态保持 PENDING
+ */
+@Service
+public class OrderIntakeService {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_PERSISTED = "PERSISTED";
+    public static final String STATUS_REJECTED = "REJECTED";
+
+    // 单条订单写库失败（非唯一约束冲突）时，每重试这么多次仍失败就写入溢出文件
+    private static final int ATTEMPTS_BEFORE_SPILL = 5;
+    private static final long MAX_BACKOFF_MS = 5000;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private UserDAO userDAO;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${catering.order-intake.async-enabled:false}")
+    private boolean enabled;
+    @Value("${catering.order-intake.queue-capacity:10000}")
+    private int queueCapacity;
+    @Value("${catering.order-intake.batch-size:200}")
+    private int batchSize;
+    @Value("${catering.order-intake.status-ttl-ms:1800000}")
+    private long statusTtlMillis;
+    @Value("${catering.order-intake.spill-file:data/order-intake-spill.jsonl}")
+    private String spillFile;
+
+    private BlockingQueue<PendingOrder> queue;
+    private final Map<String, IntakeStatus> statuses = new ConcurrentHashMap<>();
+    // 尚未写库的订单：userId:用餐日期 -> token，同一用户同一天的重复提交返回同一个 token
+    private final Map<String, String> pendingByUserDay = new ConcurrentHashMap<>();
+    private volatile boolean accepting;
+    // 受理（读锁，可并发）与停止受理（写锁）互斥：stop() 关闭受理后不会再有订单入队，写线程退出前一定能看到全部已受理的订单
+    private final ReentrantReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private Thread writer;
+    // 溢出文件的追加（写线程）与重放（定时任务）互斥
+    private final Object spillLock = new Object();
+
+    @PostConstruct
+    public void start() {
+        // 上次运行留下的溢出订单先补写，无论本次是否开启异步受理
+        replaySpilled();
+        if (!enabled) {
+            return;
+        }
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        accepting = true;
+        writer = new Thread(this::writeLoop, "order-intake-writer");
+        writer.start();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 受理订单：成功返回 token，队列已满或正在关闭时返回 null。
+     * 该用户当天已有订单在队列中（重试、连点、换了 Idempotency-Key 重新提交）时不再入队，返回已有的 token。
+     */
+    public String submit(Order order, List<OrderItem> orderItems) {
+        acceptLock.readLock().lock();
+        try {
+            if (!accepting) {
+                return null;
+            }
+            String token = UUID.randomUUID().toString();
+            String pendingKey = pendingKey(order);
+            String existing = pendingByUserDay.putIfAbsent(pendingKey, token);
+            if (existing != null) {
+                return existing;
+            }
+            IntakeStatus status = new IntakeStatus(STATUS_PENDING, null, null);
+            statuses.put(token, status);
+            if (!queue.offer(new PendingOrder(token, order, orderItems, order.getIdempotencyKey()))) {
+                statuses.remove(token);
+                pendingByUserDay.remove(pendingKey, token);
+                return null;
+            }
+            return token;
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+    }
+
+    public IntakeStatus getStatus(String token) {
+        return statuses.get(token);
+    }
+
+    private void writeLoop() {
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                PendingOrder first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 循环条件保证剩余订单继续写完
+            } catch (Exception e) {
+                System.err.println("订单受理队列写入异常: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingOrder> batch) {
+        fillWorkLocations(batch);
+
+        List<Order> orders = new ArrayList<>(batch.size());
+        List<List<OrderItem>> itemsPerOrder = new ArrayList<>(batch.size());
+        for (PendingOrder pending : batch) {
+            orders.add(pending.order);
+            itemsPerOrder.add(pending.items);
+        }
+        try {
+            orderService.placeOrders(orders, itemsPerOrder);
+            for (PendingOrder pending : batch) {
+                complete(pending, STATUS_PERSISTED, null);
+            }
+            return;
+        } catch (Exception e) {
+            // 整批回滚（通常是个别订单违反唯一约束），改为逐条写入以隔离问题订单
+        }
+        for (PendingOrder pending : batch) {
+            persistSingle(pending);
+        }
+    }
+
+    /**
+     * 逐条写入：已受理的订单只会以 PERSISTED 或 REJECTED（唯一约束冲突）结束。
+     * 每连续失败 ATTEMPTS_BEFORE_SPILL 次尝试写入溢出文件，溢出文件也写不进时继续重试数据库。
+     */
+    private void persistSingle(PendingOrder pending) {
+        for (int attempt = 1; ; attempt++) {
+            pending.order.setId(null);
+            try {
+                orderService.placeOrder(pending.order, pending.items);
+                complete(pending, STATUS_PERSISTED, null);
+                return;
+            } catch (DuplicateKeyException e) {
+                complete(pending, STATUS_REJECTED, "already_ordered_today");
+                return;
+            } catch (Exception e) {
+                System.err.println("订单写入失败（第 " + attempt + " 次）: " + e.getMessage());
+            }
+            if (attempt % ATTEMPTS_BEFORE_SPILL == 0 && spill(pending)) {
+                return;
+            }
+            try {
+                Thread.sleep(Math.min(200L << Math.min(attempt - 1, 10), MAX_BACKOFF_MS));
+            } catch (InterruptedException ie) {
+                // 关闭期间不放弃重试
+            }
+        }
+    }
+
+    /**
+     * 追加到溢出文件并强制刷盘，成功后告警，等待重放
+     */
+    private boolean spill(PendingOrder pending) {
+        synchronized (spillLock) {
+            try {
+                Path path = Paths.get(spillFile);
+                if (path.getParent() != null) {
+                    Files.createDirectories(path.getParent());
+                }
+                byte[] line = (objectMapper.writeValueAsString(pending) + "\n").getBytes(StandardCharsets.UTF_8);
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    channel.write(ByteBuffer.wrap(line));
+                    channel.force(true);
+                }
+            } catch (IOException e) {
+                meterRegistry.counter("catering.order_intake.spill_failures").increment();
+                System.err.println("【告警】订单无法写入数据库，也无法写入溢出文件 " + spillFile
+                        + "，继续重试。用户ID: " + pending.order.getUserId() + ", token: " + pending.token
+                        + ", 原因: " + e.getMessage());
+                return false;
+            }
+        }
+        meterRegistry.counter("catering.order_intake.spilled").increment();
+        System.err.println("【告警】订单写库连续失败，已写入溢出文件 " + spillFile
+                + " 等待重放。用户ID: " + pending.order.getUserId() + ", token: " + pending.token);
+        return true;
+    }
+
+    /**
+     * 重放溢出文件：写库成功或唯一约束冲突的订单移出文件，仍失败的保留到下次重放
+     */
+    @Scheduled(fixedDelayString = "${catering.order-intake.spill-replay-ms:60000}")
+    public void replaySpilled() {
+        synchronized (spillLock) {
+            Path path = Paths.get(spillFile);
+            if (!Files.exists(path)) {
+                return;
+            }
+            try {
+                List<String> remaining = new ArrayList<>();
+                for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    PendingOrder pending;
+                    try {
+                        pending = objectMapper.readValue(line, PendingOrder.class);
+                    } catch (JsonProcessingException e) {
+                        // 无法解析的行（如进程崩溃时写了一半）保留在文件中人工处理，不影响其他订单重放
+                        System.err.println("【告警】溢出文件中有无法解析的行: " + e.getOriginalMessage());
+                        remaining.add(line);
+                        continue;
+                    }
+                    pending.order.setId(null);
+                    pending.order.setIdempotencyKey(pending.idempotencyKey);
+                    try {
+                        orderService.placeOrder(pending.order, pending.items);
+                        complete(pending, STATUS_PERSISTED, null);
+                    } catch (DuplicateKeyException e) {
+                        complete(pending, STATUS_REJECTED, "already_ordered_today");
+                    } catch (Exception e) {
+                        remaining.add(line);
+                    }
+                }
+                if (remaining.isEmpty()) {
+                    Files.delete(path);
+                    return;
+                }
+                // 先写临时文件再原子替换，重放中途崩溃也不会丢失溢出的订单
+                Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+                Files.write(temp, remaining, StandardCharsets.UTF_8);
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                System.err.println("【告警】溢出文件中仍有 " + remaining.size() + " 条订单未能写入数据库: " + spillFile);
+            } catch (IOException e) {
+                System.err.println("重放订单溢出文件失败: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 批量补全工位信息（一次 IN 查询）
+     */
+    private void fillWorkLocations(List<PendingOrder> batch) {
+        Set<Integer> userIds = new HashSet<>();
+        for (PendingOrder pending : batch) {
+            if (pending.order.getWorkLocation() == null) {
+                userIds.add(pending.order.getUserId());
+            }
+        }
+        if (userIds.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Integer, User> users = userDAO.findByIds(userIds);
+            for (PendingOrder pending : batch) {
+                User user = users.get(pending.order.getUserId());
+                if (pending.order.getWorkLocation() == null && user != null) {
+                    pending.order.setWorkLocation(user.getWorkstation());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("查询工位信息失败: " + e.getMessage());
+        }
+    }
+
+    private void complete(PendingOrder pending, String status, String reason) {
+        Integer orderId = STATUS_PERSISTED.equals(status) ? pending.order.getId() : null;
+        statuses.put(pending.token, new IntakeStatus(status, orderId, reason));
+        // 写库后的重复提交由 hasOrderByUserIdAndDate 和唯一约束拦截
+        pendingByUserDay.remove(pendingKey(pending.order), pending.token);
+    }
+
+    private static String pendingKey(Order order) {
+        return order.getUserId() + ":" + order.getMealDate().getTime();
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpiredStatuses() {
+        long now = System.currentTimeMillis();
+        statuses.values().removeIf(status -> !STATUS_PENDING.equals(status.getStatus())
+                && now - status.getUpdatedAt() > statusTtlMillis);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        // 不中断写线程（中断会关闭正在追加溢出文件的 FileChannel，留下写了一半的行），
+        // 写线程最多 100ms 后发现已停止受理，把队列中剩余的订单全部写完后退出
+        writer.join();
+    }
+
+    /**
+     * 队列中的订单，同时作为溢出文件中每一行的 JSON 结构
+     * （Order 序列化时不含 Idempotency-Key，单独保存，重放时写回）
+     */
+    private record PendingOrder(String token, Order order, List<OrderItem> items, String idempotencyKey) {
+    }
+
+    /**
+     * 受理状态（不可变）
+     */
+    public static final class IntakeStatus {
+        private final String status;
+        private final Integer orderId;
+        private final String reason;
+        private final long updatedAt;
+
+        private IntakeStatus(String status, Integer orderId, String reason) {
+            this.status = status;
+            this.orderId = orderId;
+            this.reason = reason;
+            this.updatedAt = System.currentTimeMillis();
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public Integer getOrderId() {
+            return orderId;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+    }
+}
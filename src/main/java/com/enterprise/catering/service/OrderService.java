@@ -0,0 +1,65 @@
+package com.enterprise.catering.service;
+
+import com.enterprise.catering.dao.BlanketOrderDAO;
+import com.enterprise.catering.dao.DailyItemSalesDAO;
+import com.enterprise.catering.dao.OrderDAO;
+import com.enterprise.catering.model.Order;
+import com.enterprise.catering.model.OrderItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 下单写入：订单、订单项以及各类汇总表在同一事务中提交
+ */
+@Service
+public class OrderService {
+
+    @Autowired
+    private OrderDAO orderDAO;
+    @Autowired
+    private BlanketOrderDAO blanketOrderDAO;
+    @Autowired
+    private DailyItemSalesDAO dailyItemSalesDAO;
+
+    @Transactional
+    public void placeOrder(Order order, List<OrderItem> orderItems) {
+        orderDAO.addOrderWithItems(order, orderItems);
+        // 增量维护总括订单
+        blanketOrderDAO.addOrderItems(order.getMealDate(), orderItems);
+        // 增量维护财务报表用的每日销售汇总
+        dailyItemSalesDAO.addOrderItems(order.getMealDate(), order.getUserId(), orderItems);
+    }
+
+    /**
+     * 批量下单（异步受理队列的写线程使用）：订单、订单项、汇总表各一次批处理，整体一个事务。
+     * itemsPerOrder 与 orders 一一对应；任一订单失败（如违反唯一约束）则整批回滚。
+     */
+    @Transactional
+    public void placeOrders(List<Order> orders, List<List<OrderItem>> itemsPerOrder) {
+        orderDAO.addOrders(orders);
+
+        List<OrderItem> allItems = new ArrayList<>();
+        Map<Date, List<OrderItem>> itemsByDate = new TreeMap<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Order order = orders.get(i);
+            for (OrderItem item : itemsPerOrder.get(i)) {
+                item.setOrderId(order.getId());
+                allItems.add(item);
+                itemsByDate.computeIfAbsent(order.getMealDate(), d -> new ArrayList<>()).add(item);
+            }
+        }
+        orderDAO.addOrderItems(allItems);
+        // 同一天的菜品先在内存中合并，再累加到总括订单
+        for (Map.Entry<Date, List<OrderItem>> entry : itemsByDate.entrySet()) {
+            blanketOrderDAO.addOrderItems(entry.getKey(), entry.getValue());
+        }
+        dailyItemSalesDAO.addOrders(orders, itemsPerOrder);
+    }
+}
@@ -0,0 +1,137 @@
+package com.enterprise.catering.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * 密码哈希与校验：
+ * - 新密码使用 BCrypt（加盐、代价因子可配置 catering.auth.bcrypt-cost）
+ * - 库中仍为明文的旧密码按明文比较，登录成功后由 AuthService 升级为 BCrypt
+ * - 最近校验成功的凭据放入有界 LRU 缓存：键为库中的 BCrypt 哈希，值为密码的 HMAC 摘要，
+ *   同一账号短时间内重复登录（如订餐截止前的登录高峰）不再重复计算 BCrypt；
+ *   改密码后哈希变化，旧缓存自然失效。校验失败的请求始终走 BCrypt，不降低暴力破解成本
+ */
+@Service
+public class PasswordService {
+
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("^\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}$");
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    @Value("${catering.auth.bcrypt-cost:10}")
+    private int bcryptCost;
+
+    @Value("${catering.auth.verified-cache-size:5000}")
+    private int verifiedCacheSize;
+
+    @Value("${catering.auth.verified-cache-ttl-minutes:30}")
+    private long verifiedCacheTtlMinutes;
+
+    private BCryptPasswordEncoder encoder;
+    // 进程内随机密钥，缓存中只保存 HMAC 摘要，不保存明文密码
+    private SecretKeySpec cacheKey;
+    // 缓存读写都很短且不做 IO，用 ReentrantLock 与其他缓存保持一致，避免钉住虚拟线程
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private Map<String, VerifiedCredential> verified;
+
+    @PostConstruct
+    public void init() {
+        encoder = new BCryptPasswordEncoder(bcryptCost);
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        cacheKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+        verified = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedCredential> eldest) {
+                return size() > verifiedCacheSize;
+            }
+        };
+    }
+
+    public String hash(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * 只用于判断库中已有的密码是否仍为明文（登录时逐步升级）；
+     * 接口提交的密码一律视为明文重新哈希，不能据此跳过，否则调用方可以直接写入任意哈希
+     */
+    public boolean isHashed(String storedPassword) {
+        return storedPassword != null && BCRYPT_PATTERN.matcher(storedPassword).matches();
+    }
+
+    /**
+     * 库中密码需要重新哈希：仍为明文，或代价因子低于当前配置
+     */
+    public boolean needsRehash(String storedPassword) {
+        return !isHashed(storedPassword) || encoder.upgradeEncoding(storedPassword);
+    }
+
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (!isHashed(storedPassword)) {
+            // 旧数据：明文密码，定长比较
+            return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                    storedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+
+        byte[] digest = digest(rawPassword);
+        long now = System.currentTimeMillis();
+        VerifiedCredential cached;
+        cacheLock.lock();
+        try {
+            cached = verified.get(storedPassword);
+        } finally {
+            cacheLock.unlock();
+        }
+        if (cached != null && cached.expiresAt > now && MessageDigest.isEqual(cached.digest, digest)) {
+            return true;
+        }
+
+        if (!encoder.matches(rawPassword, storedPassword)) {
+            return false;
+        }
+        VerifiedCredential credential = new VerifiedCredential(digest, now + verifiedCacheTtlMinutes * 60_000L);
+        cacheLock.lock();
+        try {
+            verified.put(storedPassword, credential);
+        } finally {
+            cacheLock.unlock();
+        }
+        return true;
+    }
+
+    private byte[] digest(String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(cacheKey);
+            return mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC 计算失败", e);
+        }
+    }
+
+    private static class VerifiedCredential {
+        private final byte[] digest;
+        private final long expiresAt;
+
+        VerifiedCredential(byte[] digest, long expiresAt) {
+            this.digest = digest;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
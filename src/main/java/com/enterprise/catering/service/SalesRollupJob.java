@@ -0,0 +1,31 @@
+package com.enterprise.catering.service;
+
+import com.enterprise.catering.dao.DailyItemSalesDAO;
+import com.enterprise.catering.util.SystemTimeUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * 夜间压实任务：按订单表重建前一天的 daily_item_sales 汇总，
+ * 修正增量写入可能产生的偏差（如直接改库）。
+ */
+@Component
+public class SalesRollupJob {
+
+    @Autowired
+    private DailyItemSalesDAO dailyItemSalesDAO;
+
+    @Scheduled(cron = "${catering.rollup.cron:0 30 2 * * *}")
+    public void compactYesterday() {
+        LocalDate yesterday = LocalDate.now(SystemTimeUtil.ZONE).minusDays(1);
+        try {
+            dailyItemSalesDAO.rebuildForDate(SystemTimeUtil.toDate(yesterday));
+        } catch (Exception e) {
+            System.err.println("重建每日销售汇总失败: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
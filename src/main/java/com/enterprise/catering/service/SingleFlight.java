@@ -0,0 +1,124 @@
+package com.enterprise.catering.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 合并并发的相同查询（single-flight）：
+ * - 以 接口 + 参数 为键，同一键同时只有一个线程（首个调用者）执行查询，其余调用者等待并共享同一结果或异常
+ * - 已结束周期（过去的月份、日期）的数据不再变化，调用方传 cacheable = true 时结果再短期缓存，
+ *   TTL 由 catering.single-flight.closed-period-ttl-ms 控制，数据被重建时调用 invalidate() 使其失效
+ * - 每个键有一个代数，invalidate() 时加一；失效前开始、失效后才结束的查询结果不会写入缓存
+ * 返回的对象在调用者之间共享，调用方不得修改。
+ */
+@Component
+public class SingleFlight {
+
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CachedResult> cache = new ConcurrentHashMap<>();
+    // 只有调用过 invalidate() 的键才有记录（数量与被重建的日期、月份数相当）
+    private final ConcurrentHashMap<String, Long> generations = new ConcurrentHashMap<>();
+
+    @Value("${catering.single-flight.cache-enabled:true}")
+    private boolean cacheEnabled;
+    @Value("${catering.single-flight.closed-period-ttl-ms:300000}")
+    private long ttlMillis;
+    @Value("${catering.single-flight.max-cached:500}")
+    private int maxCached;
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, boolean cacheable, Supplier<T> loader) {
+        if (cacheable && cacheEnabled) {
+            CachedResult cached = cache.get(key);
+            if (cached != null && cached.expiresAt > System.currentTimeMillis()) {
+                return (T) cached.value;
+            }
+        }
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return (T) await(existing);
+        }
+
+        long generation = generations.getOrDefault(key, 0L);
+        try {
+            T value = loader.get();
+            if (cacheable && cacheEnabled) {
+                put(key, value, generation);
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 数据被重建后清除缓存结果：先增加代数再删除缓存，进行中的查询结束后不会再写入缓存；
+     * 之后到达的调用者不再等待进行中的查询，而是重新查询
+     */
+    public void invalidate(String key) {
+        generations.merge(key, 1L, Long::sum);
+        inFlight.remove(key);
+        cache.remove(key);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> cached.expiresAt <= now);
+    }
+
+    private void put(String key, Object value, long generation) {
+        if (cache.size() >= maxCached) {
+            evictExpired();
+            if (cache.size() >= maxCached) {
+                // 仍然已满时不再缓存，只做并发合并
+                return;
+            }
+        }
+        CachedResult cached = new CachedResult(value, System.currentTimeMillis() + ttlMillis);
+        cache.put(key, cached);
+        // 写入后再检查代数：查询期间发生过 invalidate() 时撤回；
+        // 检查之后才发生的 invalidate() 会在增加代数后自行删除这条缓存
+        if (generations.getOrDefault(key, 0L) != generation) {
+            cache.remove(key, cached);
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            // 把首个调用者抛出的异常原样抛给等待者
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class CachedResult {
+        private final Object value;
+        private final long expiresAt;
+
+        CachedResult(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
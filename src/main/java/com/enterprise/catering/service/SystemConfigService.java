@@ -0,0 +1,85 @@
+package com.enterprise.catering.service;
+
+import com.enterprise.catering.dao.SystemConfigDAO;
+import com.enterprise.catering.util.SystemTimeConfig;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 系统时间配置：持久化在 system_config 表，本地保存不可变快照供热点路径无锁读取。
+ * 定时轮询 version 字段，其他节点修改配置后，各节点在一个轮询周期内同步。
+ */
+@Service
+public class SystemConfigService {
+
+    private static volatile SystemTimeConfig current = SystemTimeConfig.defaults();
+
+    @Autowired
+    private SystemConfigDAO systemConfigDAO;
+
+    // 持锁期间访问数据库，用 ReentrantLock 而不是 synchronized，避免钉住虚拟线程
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 当前时间配置快照（不访问数据库）
+     */
+    public static SystemTimeConfig current() {
+        return current;
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            System.err.println("加载系统配置失败，使用默认配置: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 轮询 system_config.version，发生变化时重新加载
+     */
+    @Scheduled(fixedDelayString = "${catering.config.refresh-interval-ms:5000}")
+    public void refresh() {
+        try {
+            Long version = systemConfigDAO.getVersion();
+            if (version != null && version != current.getVersion()) {
+                reload();
+            }
+        } catch (Exception e) {
+            System.err.println("刷新系统配置失败: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 修改配置：写入数据库后立即刷新本节点快照，参数为空时沿用原值。
+     * 时间格式错误时抛出 DateTimeParseException。
+     */
+    public SystemTimeConfig update(String orderDeadline, String deliveryStartTime) {
+        lock.lock();
+        try {
+            SystemTimeConfig updated = current.with(orderDeadline, deliveryStartTime);
+            systemConfigDAO.updateTimeConfig(updated);
+            reload();
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void reload() {
+        lock.lock();
+        try {
+            SystemTimeConfig loaded = systemConfigDAO.getTimeConfig();
+            if (loaded != null) {
+                current = loaded;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.enterprise.catering.service;
+
+import com.enterprise.catering.dao.MenuDAO;
+import com.enterprise.catering.dao.MenuItemDAO;
+import com.enterprise.catering.model.Menu;
+import com.enterprise.catering.model.MenuItem;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * “今日菜单”缓存：
+ * - 缓存 /api/menus/today 已序列化好的 JSON 及其 ETag，读请求不访问数据库、也不重复序列化
+ * - 菜单或菜单项被修改时由 MenuController 调用 invalidate() 使缓存失效
+ * - 日期变化或超过最长存活时间后自动重建，兜底处理绕过接口直接改库的情况
+ */
+@Component
+public class TodayMenuCache {
+
+    // 缓存最长存活时间（毫秒）
+    private static final long MAX_AGE_MILLIS = 60_000L;
+
+    @Autowired
+    private MenuDAO menuDAO;
+    @Autowired
+    private MenuItemDAO menuItemDAO;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong version = new AtomicLong();
+    // 重建期间会访问数据库，用 ReentrantLock 而不是 synchronized，避免钉住虚拟线程
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    /**
+     * 获取当前有效的快照，必要时（仅一个线程）重建
+     */
+    public Snapshot get() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            current = snapshot;
+            if (isFresh(current)) {
+                return current;
+            }
+            current = build(version.get());
+            snapshot = current;
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    /**
+     * 使缓存失效：菜单相关写操作完成后调用
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    private boolean isFresh(Snapshot s) {
+        return s != null
+                && s.version == version.get()
+                && s.day.equals(LocalDate.now())
+                && System.currentTimeMillis() - s.builtAt < MAX_AGE_MILLIS;
+    }
+
+    private Snapshot build(long buildVersion) {
+        List<Menu> activeMenus = menuDAO.getActiveMenusForToday();
+        List<Integer> menuIds = new ArrayList<>();
+        for (Menu menu : activeMenus) {
+            menuIds.add(menu.getId());
+        }
+        Map<Integer, List<MenuItem>> loaded = menuItemDAO.getMenuItemsByMenuIds(menuIds);
+
+        // 组装菜单及其菜单项（没有菜单项的菜单也保留空列表）
+        Map<Integer, List<MenuItem>> itemsMap = new HashMap<>();
+        Map<Integer, MenuItem> itemsById = new HashMap<>();
+        for (Menu menu : activeMenus) {
+            List<MenuItem> items = loaded.getOrDefault(menu.getId(), Collections.emptyList());
+            itemsMap.put(menu.getId(), items);
+            for (MenuItem item : items) {
+                itemsById.put(item.getId(), item);
+            }
+        }
+        Map<String, Object> result = new HashMap<>();
+        result.put("menus", activeMenus);
+        result.put("itemsMap", itemsMap);
+
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("今日菜单序列化失败", e);
+        }
+        String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        return new Snapshot(buildVersion, LocalDate.now(), System.currentTimeMillis(), body, etag,
+                Collections.unmodifiableMap(itemsById));
+    }
+
+    /**
+     * 不可变的缓存快照
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final LocalDate day;
+        private final long builtAt;
+        private final byte[] body;
+        private final String etag;
+        private final Map<Integer, MenuItem> itemsById;
+
+        private Snapshot(long version, LocalDate day, long builtAt, byte[] body, String etag,
+                         Map<Integer, MenuItem> itemsById) {
+            this.version = version;
+            this.day = day;
+            this.builtAt = builtAt;
+            this.body = body;
+            this.etag = etag;
+            this.itemsById = itemsById;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public Map<Integer, MenuItem> getItemsById() {
+            return itemsById;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.enterprise.catering.util;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 系统时间配置的不可变快照：订餐截止时间与配餐开始时间。
+ * 时间在创建时解析一次，读取方只做比较；修改配置时整体替换快照。
+ */
+public final class SystemTimeConfig {
+
+    private static final DateTimeFormatter TIME_PARSER = DateTimeFormatter.ofPattern("H:mm");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final LocalTime orderDeadline;
+    private final LocalTime deliveryStartTime;
+    private final String orderDeadlineText;
+    private final String deliveryStartTimeText;
+    // 对应 system_config.version，用于判断其他节点是否修改过配置
+    private final long version;
+
+    private SystemTimeConfig(LocalTime orderDeadline, LocalTime deliveryStartTime, long version) {
+        this.orderDeadline = orderDeadline;
+        this.deliveryStartTime = deliveryStartTime;
+        this.orderDeadlineText = TIME_FORMAT.format(orderDeadline);
+        this.deliveryStartTimeText = TIME_FORMAT.format(deliveryStartTime);
+        this.version = version;
+    }
+
+    /**
+     * 根据 HH:mm 字符串创建快照，格式错误时抛出 DateTimeParseException
+     */
+    public static SystemTimeConfig of(String orderDeadline, String deliveryStartTime, long version) {
+        return new SystemTimeConfig(parse(orderDeadline), parse(deliveryStartTime), version);
+    }
+
+    public static SystemTimeConfig defaults() {
+        return of(Config.ORDER_DEADLINE, Config.DELIVERY_START_TIME, -1L);
+    }
+
+    /**
+     * 基于当前快照生成新快照，参数为空时沿用原值
+     */
+    public SystemTimeConfig with(String orderDeadline, String deliveryStartTime) {
+        return new SystemTimeConfig(
+                orderDeadline != null && !orderDeadline.isEmpty() ? parse(orderDeadline) : this.orderDeadline,
+                deliveryStartTime != null && !deliveryStartTime.isEmpty() ? parse(deliveryStartTime) : this.deliveryStartTime,
+                this.version);
+    }
+
+    private static LocalTime parse(String value) {
+        if (value == null) {
+            throw new DateTimeParseException("时间不能为空", "", 0);
+        }
+        return LocalTime.parse(value.trim(), TIME_PARSER);
+    }
+
+    public LocalTime getOrderDeadline() {
+        return orderDeadline;
+    }
+
+    public LocalTime getDeliveryStartTime() {
+        return deliveryStartTime;
+    }
+
+    public String getOrderDeadlineText() {
+        return orderDeadlineText;
+    }
+
+    public String getDeliveryStartTimeText() {
+        return deliveryStartTimeText;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 转换为接口返回格式（与原 system_config 字段名一致）
+     */
+    public Map<String, String> toMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("order_deadline", orderDeadlineText);
+        map.put("delivery_start_time", deliveryStartTimeText);
+        return map;
+    }
+}
@@ -2,91 +2,96 @@ package com.enterprise.catering.util;
 
 import com.enterprise.catering.controller.SystemConfigController;
 
-import java.util.Calendar;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Date;
 
 /**
- * 时间相关工具类
+ * 时间相关工具类。
+ * 统一使用 java.time：DateTimeFormatter 不可变、线程安全，可在单例 Bean 间共享。
  */
 public class SystemTimeUtil {
 
+    // 系统时区（启动时确定一次）
+    public static final ZoneId ZONE = ZoneId.systemDefault();
+
+    public static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    public static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM");
+    public static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    // 解析时允许月、日为一位数字（如 2025-1-5）
+    private static final DateTimeFormatter DATE_PARSER = DateTimeFormatter.ofPattern("yyyy-M-d");
+    private static final DateTimeFormatter MONTH_PARSER = DateTimeFormatter.ofPattern("yyyy-M");
 
     /**
      * 检查指定日期的订餐截止时间是否已过
      */
-    public static boolean isOrderDeadlinePassedForDate(Date orderDate) {
-        String deadlineStr = SystemConfigController.getOrderDeadline();
-        if (deadlineStr == null || deadlineStr.isEmpty()) {
-            deadlineStr = Config.ORDER_DEADLINE;
-        }
-
-        String[] parts = deadlineStr.split(":");
-        int deadlineHour = Integer.parseInt(parts[0]);
-        int deadlineMinute = Integer.parseInt(parts[1]);
-
-        Calendar now = Calendar.getInstance();
-        Calendar deadline = Calendar.getInstance();
-        deadline.setTime(orderDate);
-        deadline.set(Calendar.HOUR_OF_DAY, deadlineHour);
-        deadline.set(Calendar.MINUTE, deadlineMinute);
-        deadline.set(Calendar.SECOND, 0);
-        deadline.set(Calendar.MILLISECOND, 0);
-
-        Calendar today = Calendar.getInstance();
-        Calendar orderDay = Calendar.getInstance();
-        orderDay.setTime(orderDate);
-
-        boolean isToday = today.get(Calendar.YEAR) == orderDay.get(Calendar.YEAR) &&
-                today.get(Calendar.DAY_OF_YEAR) == orderDay.get(Calendar.DAY_OF_YEAR);
-
-        if (isToday) {
-            return now.after(deadline);
-        } else {
-            Calendar tomorrowDeadline = Calendar.getInstance();
-            tomorrowDeadline.add(Calendar.DAY_OF_MONTH, 1);
-            tomorrowDeadline.set(Calendar.HOUR_OF_DAY, deadlineHour);
-            tomorrowDeadline.set(Calendar.MINUTE, deadlineMinute);
-            tomorrowDeadline.set(Calendar.SECOND, 0);
-            tomorrowDeadline.set(Calendar.MILLISECOND, 0);
-            return now.after(tomorrowDeadline);
-        }
+    public static boolean isOrderDeadlinePassedForDate(LocalDate orderDate) {
+        LocalTime deadline = SystemConfigController.getTimeConfig().getOrderDeadline();
+        LocalDateTime now = LocalDateTime.now(ZONE);
+        LocalDate today = now.toLocalDate();
+        // 非今天的订餐日期按明天的截止时间判断
+        LocalDate deadlineDay = orderDate.equals(today) ? today : today.plusDays(1);
+        return now.isAfter(LocalDateTime.of(deadlineDay, deadline));
     }
 
     /**
      * 检查当前时间是否已到配餐开始时间
      */
     public static boolean isDeliveryStartTimeReached() {
-        String startTimeStr = SystemConfigController.getDeliveryStartTime();
-        if (startTimeStr == null || startTimeStr.isEmpty()) {
-            startTimeStr = Config.DELIVERY_START_TIME;
-        }
-
-        String[] parts = startTimeStr.split(":");
-        int startHour = Integer.parseInt(parts[0]);
-        int startMinute = Integer.parseInt(parts[1]);
-
-        Calendar now = Calendar.getInstance();
-        Calendar startTime = Calendar.getInstance();
-        startTime.set(Calendar.HOUR_OF_DAY, startHour);
-        startTime.set(Calendar.MINUTE, startMinute);
-        startTime.set(Calendar.SECOND, 0);
-        startTime.set(Calendar.MILLISECOND, 0);
-
-        return now.after(startTime) || now.equals(startTime);
+        LocalTime startTime = SystemConfigController.getTimeConfig().getDeliveryStartTime();
+        return !LocalTime.now(ZONE).isBefore(startTime);
     }
 
     /**
      * 获取可以订餐的日期：
      * 如果配餐开始时间已过，可以预订明天；否则预订今天。
      */
-    public static Date getAvailableOrderDate() {
-        Calendar cal = Calendar.getInstance();
-        if (isDeliveryStartTimeReached()) {
-            cal.add(Calendar.DAY_OF_MONTH, 1);
+    public static LocalDate getAvailableOrderDate() {
+        LocalDate today = LocalDate.now(ZONE);
+        return isDeliveryStartTimeReached() ? today.plusDays(1) : today;
+    }
+
+    /**
+     * 解析 yyyy-MM-dd 日期参数，为空时返回今天
+     */
+    public static LocalDate parseDateOrToday(String dateStr) {
+        if (dateStr == null || dateStr.trim().isEmpty()) {
+            return LocalDate.now(ZONE);
         }
-        return cal.getTime();
+        return parseDate(dateStr);
     }
 
-}
+    /**
+     * 解析 yyyy-MM-dd 日期字符串，格式错误时抛出 DateTimeParseException
+     */
+    public static LocalDate parseDate(String dateStr) {
+        return LocalDate.parse(dateStr.trim(), DATE_PARSER);
+    }
 
+    /**
+     * 解析 yyyy-MM 月份参数，为空或格式错误时返回当前月份
+     */
+    public static YearMonth parseMonthOrCurrent(String monthStr) {
+        if (monthStr != null && !monthStr.trim().isEmpty()) {
+            try {
+                return YearMonth.parse(monthStr.trim(), MONTH_PARSER);
+            } catch (DateTimeParseException e) {
+                // 与原逻辑一致：格式错误时使用当前月份
+            }
+        }
+        return YearMonth.now(ZONE);
+    }
 
+    /**
+     * LocalDate 转换为当天零点的 Date（供 DAO 及模型使用）
+     */
+    public static Date toDate(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZONE).toInstant());
+    }
+}
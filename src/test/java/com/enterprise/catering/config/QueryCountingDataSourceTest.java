@@ -0,0 +1,69 @@
+package com.enterprise.catering.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 请求级 SQL 统计：H2 内存库中用 Thread.sleep 别名模拟慢语句
+ */
+class QueryCountingDataSourceTest {
+
+    private DataSource target;
+
+    @BeforeEach
+    void setUp() {
+        target = new DriverManagerDataSource("jdbc:h2:mem:query-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        new JdbcTemplate(target).execute("CREATE ALIAS SLEEP FOR 'java.lang.Thread.sleep'");
+    }
+
+    @AfterEach
+    void tearDown() {
+        QueryMonitor.end();
+    }
+
+    @Test
+    void recordsStatementsAndSlowStatements() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new QueryCountingDataSource(target, 50));
+        QueryMonitor.Stats stats = QueryMonitor.begin();
+
+        jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+        jdbcTemplate.execute("CALL SLEEP(120)");
+
+        assertEquals(2, stats.getStatementCount());
+        List<QueryMonitor.SlowStatement> slow = stats.getSlowStatements();
+        assertEquals(1, slow.size());
+        assertEquals("CALL SLEEP(?)", slow.get(0).shape());
+        assertTrue(slow.get(0).nanos() >= 100_000_000L);
+    }
+
+    @Test
+    void zeroThresholdDisablesSlowStatements() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new QueryCountingDataSource(target, 0));
+        QueryMonitor.Stats stats = QueryMonitor.begin();
+
+        jdbcTemplate.execute("CALL SLEEP(20)");
+
+        assertEquals(1, stats.getStatementCount());
+        assertTrue(stats.getSlowStatements().isEmpty());
+    }
+
+    @Test
+    void statementsOutsideRequestAreNotRecorded() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new QueryCountingDataSource(target, 1));
+
+        jdbcTemplate.execute("CALL SLEEP(20)");
+
+        QueryMonitor.Stats stats = QueryMonitor.begin();
+        assertEquals(0, stats.getStatementCount());
+    }
+}
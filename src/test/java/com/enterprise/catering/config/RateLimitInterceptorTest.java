@@ -0,0 +1,89 @@
+package com.enterprise.catering.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 限流拦截器：每个用户、全局各可连续请求 1 次，每分钟只补充 1 个令牌（测试期间不会回满）
+ */
+class RateLimitInterceptorTest {
+
+    private RateLimitInterceptor interceptor;
+    private SimpleMeterRegistry meterRegistry;
+    private HandlerMethod handler;
+    private Object group;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("catering.rate-limit.groups.report.user-capacity", "1")
+                .withProperty("catering.rate-limit.groups.report.user-per-minute", "1")
+                .withProperty("catering.rate-limit.groups.report.global-capacity", "1")
+                .withProperty("catering.rate-limit.groups.report.global-per-minute", "1");
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new RateLimitInterceptor();
+        ReflectionTestUtils.setField(interceptor, "environment", environment);
+        ReflectionTestUtils.setField(interceptor, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(interceptor, "enabled", true);
+
+        handler = new HandlerMethod(this, RateLimitInterceptorTest.class.getDeclaredMethod("report"));
+        group = ReflectionTestUtils.invokeMethod(interceptor, "createGroup", "report");
+        ReflectionTestUtils.setField(interceptor, "groupsByMethod", Map.of(handler.getMethod(), group));
+    }
+
+    @Test
+    void userOverLimitIsRejectedByUserBucket() throws Exception {
+        assertEquals(200, request(1).getStatus());
+        MockHttpServletResponse rejected = request(1);
+        assertEquals(429, rejected.getStatus());
+        assertEquals(1.0, rejections("user"));
+        assertEquals(0.0, rejections("global"));
+    }
+
+    @Test
+    void globalRejectionRefundsUserToken() throws Exception {
+        assertEquals(200, request(1).getStatus());
+
+        // 全局令牌已用完：用户 2 被全局桶拒绝，已取得的用户令牌退还
+        MockHttpServletResponse rejected = request(2);
+        assertEquals(429, rejected.getStatus());
+        assertEquals(1.0, rejections("global"));
+        assertTrue(Long.parseLong(rejected.getHeader("Retry-After")) > 0);
+
+        RateLimitInterceptor.TokenBucket userBucket = userBuckets().get(2);
+        assertEquals(0, userBucket.tryAcquire(System.nanoTime()));
+        assertFalse(userBucket.tryAcquire(System.nanoTime()) == 0);
+    }
+
+    private MockHttpServletResponse request(int userId) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/reports/monthly-sales");
+        request.setAttribute(AuthInterceptor.USER_ID_ATTRIBUTE, userId);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, handler);
+        return response;
+    }
+
+    private double rejections(String scope) {
+        return meterRegistry.counter("catering.rate_limit.rejections", "group", "report", "scope", scope).count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Integer, RateLimitInterceptor.TokenBucket> userBuckets() {
+        return (Map<Integer, RateLimitInterceptor.TokenBucket>) ReflectionTestUtils.getField(group, "userBuckets");
+    }
+
+    private void report() {
+    }
+}
@@ -0,0 +1,139 @@
+package com.enterprise.catering.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 读写分离路由：主库、从库各用一个 H2 内存库，按 ReplicaDataSourceConfig 的方式组装
+ * （LazyConnectionDataSourceProxy 包装 ReplicaRoutingDataSource），通过每个库中的标记行判断实际访问的是哪个库。
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final long RETRY_INTERVAL_MS = 300;
+
+    private DataSource primary;
+    private SwitchableDataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTransaction;
+    private TransactionTemplate writeTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica = new SwitchableDataSource(h2("replica"));
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, RETRY_INTERVAL_MS));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        writeTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Test
+    void readOnlyTransactionUsesReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    void writesUsePrimary() {
+        assertEquals("primary", writeTransaction.execute(status -> currentNode()));
+        // 不在事务中的语句也走主库
+        assertEquals("primary", currentNode());
+
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update("INSERT INTO items (name) VALUES ('written')"));
+        assertEquals(2, count(new JdbcTemplate(primary)));
+        assertEquals(1, count(new JdbcTemplate(replica.getTargetDataSource())));
+        // 两个库之间没有复制，只读事务读到的是从库中的数据
+        assertEquals(Integer.valueOf(1), readOnlyTransaction.execute(status -> count(jdbcTemplate)));
+    }
+
+    @Test
+    void readOnlyOperationJoiningWriteTransactionUsesPrimary() {
+        // 外层读写事务中嵌套的只读事务（如 @Transactional(readOnly = true) 的 DAO 方法）加入外层事务，读主库
+        assertEquals("primary", writeTransaction.execute(status -> readOnlyTransaction.execute(inner -> currentNode())));
+    }
+
+    @Test
+    void deadReplicaFallsBackToPrimaryUntilRetryInterval() throws InterruptedException {
+        replica.setDown(true);
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentNode()));
+        assertEquals(1, replica.getAttempts());
+
+        // 重试间隔内不再尝试从库
+        replica.setDown(false);
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentNode()));
+        assertEquals(1, replica.getAttempts());
+
+        Thread.sleep(RETRY_INTERVAL_MS + 100);
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+        assertEquals(2, replica.getAttempts());
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static int count(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Integer.class);
+    }
+
+    /**
+     * 每个测试使用独立的内存库，库中 node 表记录自己的名称，items 表初始各有一行
+     */
+    private static DataSource h2(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node (name) VALUES (?)", name);
+        jdbcTemplate.execute("CREATE TABLE items (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO items (name) VALUES ('seed')");
+        return dataSource;
+    }
+
+    /**
+     * 可模拟宕机的从库：down 时获取连接抛出 SQLException，并统计获取连接的次数
+     */
+    private static class SwitchableDataSource extends DelegatingDataSource {
+
+        private final AtomicInteger attempts = new AtomicInteger();
+        private volatile boolean down;
+
+        SwitchableDataSource(DataSource target) {
+            super(target);
+        }
+
+        void setDown(boolean down) {
+            this.down = down;
+        }
+
+        int getAttempts() {
+            return attempts.get();
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            attempts.incrementAndGet();
+            if (down) {
+                throw new SQLException("replica is down");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -0,0 +1,293 @@
+package com.enterprise.catering.service;
+
+import com.enterprise.catering.model.Order;
+import com.enterprise.catering.model.OrderItem;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异步订单受理：OrderService 用内存实现替代，溢出文件放在临时目录中
+ */
+class OrderIntakeServiceTest {
+
+    private static final Date MEAL_DATE = new Date(1704067200000L);
+
+    private Path tempDir;
+    private Path spillFile;
+    private RecordingOrderService orderService;
+    private OrderIntakeService intake;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        tempDir = Files.createTempDirectory("order-intake");
+        spillFile = tempDir.resolve("spill.jsonl");
+        orderService = new RecordingOrderService();
+        intake = newIntake(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        intake.stop();
+        try (Stream<Path> paths = Files.walk(tempDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    void acceptedOrdersArePersistedBeforeStopReturns() throws Exception {
+        intake.start();
+        List<String> tokens = new ArrayList<>();
+        for (int userId = 1; userId <= 20; userId++) {
+            tokens.add(intake.submit(order(userId, null), items()));
+        }
+        intake.stop();
+
+        assertEquals(20, orderService.persisted.size());
+        for (String token : tokens) {
+            assertEquals(OrderIntakeService.STATUS_PERSISTED, intake.getStatus(token).getStatus());
+            assertNotNull(intake.getStatus(token).getOrderId());
+        }
+        assertNull(intake.submit(order(21, null), items()));
+    }
+
+    @Test
+    void submitRacingStopIsEitherRejectedOrPersisted() throws Exception {
+        intake.start();
+        List<String> tokens = new CopyOnWriteArrayList<>();
+        AtomicInteger nextUserId = new AtomicInteger();
+        ExecutorService submitters = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            futures.add(submitters.submit(() -> {
+                while (true) {
+                    String token = intake.submit(order(nextUserId.incrementAndGet(), null), items());
+                    if (token == null) {
+                        return;
+                    }
+                    tokens.add(token);
+                }
+            }));
+        }
+        Thread.sleep(50);
+        intake.stop();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        submitters.shutdown();
+
+        // 停止受理之前入队的订单都已写入，之后的提交都被拒绝
+        assertFalse(tokens.isEmpty());
+        assertEquals(tokens.size(), orderService.persisted.size());
+        for (String token : tokens) {
+            assertEquals(OrderIntakeService.STATUS_PERSISTED, intake.getStatus(token).getStatus());
+        }
+    }
+
+    @Test
+    void duplicateSubmitWhilePendingReturnsSameToken() throws Exception {
+        orderService.blockWrites = new CountDownLatch(1);
+        intake.start();
+
+        String first = intake.submit(order(1, "key-1"), items());
+        String retry = intake.submit(order(1, "key-2"), items());
+        String otherUser = intake.submit(order(2, null), items());
+        assertEquals(first, retry);
+        assertNotEquals(first, otherUser);
+
+        orderService.blockWrites.countDown();
+        intake.stop();
+        assertEquals(2, orderService.persisted.size());
+    }
+
+    @Test
+    void failedWritesSpillToFileAndReplayLater() throws Exception {
+        orderService.failing = true;
+        intake.start();
+
+        String token = intake.submit(order(1, "key-1"), items());
+        waitFor(this::spilled);
+        assertEquals(1, Files.readAllLines(spillFile, StandardCharsets.UTF_8).size());
+        assertEquals(OrderIntakeService.STATUS_PENDING, intake.getStatus(token).getStatus());
+
+        // 数据库仍不可用：订单留在溢出文件中
+        intake.replaySpilled();
+        assertEquals(1, Files.readAllLines(spillFile, StandardCharsets.UTF_8).size());
+
+        orderService.failing = false;
+        intake.replaySpilled();
+        assertFalse(Files.exists(spillFile));
+        assertEquals(OrderIntakeService.STATUS_PERSISTED, intake.getStatus(token).getStatus());
+        assertEquals(1, orderService.persisted.size());
+        assertEquals("key-1", orderService.persisted.get(0).getIdempotencyKey());
+    }
+
+    @Test
+    void spillFileFromPreviousRunIsReplayedOnStart() throws Exception {
+        orderService.failing = true;
+        intake.start();
+        intake.submit(order(1, "key-1"), items());
+        waitFor(this::spilled);
+        intake.stop();
+
+        // 重启：异步受理关闭也会补写上次留下的订单
+        orderService.failing = false;
+        OrderIntakeService restarted = newIntake(false);
+        restarted.start();
+        assertFalse(Files.exists(spillFile));
+        assertEquals(1, orderService.persisted.size());
+        assertEquals("key-1", orderService.persisted.get(0).getIdempotencyKey());
+    }
+
+    @Test
+    void unreadableSpillLineDoesNotBlockReplay() throws Exception {
+        orderService.failing = true;
+        intake.start();
+        intake.submit(order(1, "key-1"), items());
+        waitFor(this::spilled);
+        // 模拟崩溃时写了一半的行
+        Files.writeString(spillFile, "{\"token\":\"broken\",\"order\":{\"use\n", StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+        orderService.failing = false;
+        intake.replaySpilled();
+        assertEquals(1, orderService.persisted.size());
+        assertEquals(List.of("{\"token\":\"broken\",\"order\":{\"use"),
+                Files.readAllLines(spillFile, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void replayedDuplicateIsRejectedAndRemovedFromSpillFile() throws Exception {
+        orderService.failing = true;
+        intake.start();
+        String token = intake.submit(order(1, null), items());
+        waitFor(this::spilled);
+
+        orderService.failing = false;
+        orderService.duplicate = true;
+        intake.replaySpilled();
+        assertFalse(Files.exists(spillFile));
+        assertEquals(OrderIntakeService.STATUS_REJECTED, intake.getStatus(token).getStatus());
+        assertEquals("already_ordered_today", intake.getStatus(token).getReason());
+    }
+
+    /**
+     * 溢出文件已写入完整的一行
+     */
+    private boolean spilled() throws Exception {
+        return Files.exists(spillFile) && Files.readString(spillFile, StandardCharsets.UTF_8).endsWith("\n");
+    }
+
+    private OrderIntakeService newIntake(boolean enabled) {
+        OrderIntakeService service = new OrderIntakeService();
+        ReflectionTestUtils.setField(service, "orderService", orderService);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "enabled", enabled);
+        ReflectionTestUtils.setField(service, "queueCapacity", 1000);
+        ReflectionTestUtils.setField(service, "batchSize", 50);
+        ReflectionTestUtils.setField(service, "statusTtlMillis", 60_000L);
+        ReflectionTestUtils.setField(service, "spillFile", spillFile.toString());
+        return service;
+    }
+
+    /**
+     * 已带工位信息的订单，写线程不会查询 users 表
+     */
+    private static Order order(int userId, String idempotencyKey) {
+        Order order = new Order(userId, "员工" + userId, "138" + (10000000 + userId), MEAL_DATE, 18.0);
+        order.setWorkLocation("A区-" + userId);
+        order.setIdempotencyKey(idempotencyKey);
+        return order;
+    }
+
+    private static List<OrderItem> items() {
+        List<OrderItem> items = new ArrayList<>();
+        items.add(new OrderItem(null, 1, "菜品1", "份", 1, 18.0, 18.0));
+        return items;
+    }
+
+    private static void waitFor(Condition condition) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.met()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(20);
+        }
+    }
+
+    private interface Condition {
+        boolean met() throws Exception;
+    }
+
+    /**
+     * 内存中的 OrderService：failing 时所有写入失败，duplicate 时逐条写入违反唯一约束，
+     * blockWrites 不为空时批量写入等待放行
+     */
+    private static class RecordingOrderService extends OrderService {
+
+        private final List<Order> persisted = new CopyOnWriteArrayList<>();
+        private final AtomicInteger nextId = new AtomicInteger(1000);
+        private volatile boolean failing;
+        private volatile boolean duplicate;
+        private volatile CountDownLatch blockWrites;
+
+        @Override
+        public void placeOrder(Order order, List<OrderItem> orderItems) {
+            if (failing) {
+                throw new IllegalStateException("database unavailable");
+            }
+            if (duplicate) {
+                throw new DuplicateKeyException("uk_orders_user_date");
+            }
+            order.setId(nextId.incrementAndGet());
+            persisted.add(order);
+        }
+
+        @Override
+        public void placeOrders(List<Order> orders, List<List<OrderItem>> itemsPerOrder) {
+            CountDownLatch latch = blockWrites;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                throw new IllegalStateException("database unavailable");
+            }
+            for (Order order : orders) {
+                order.setId(nextId.incrementAndGet());
+                persisted.add(order);
+            }
+        }
+    }
+}
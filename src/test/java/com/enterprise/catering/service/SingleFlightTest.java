@@ -0,0 +1,66 @@
+package com.enterprise.catering.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private SingleFlight singleFlight;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        singleFlight = new SingleFlight();
+        ReflectionTestUtils.setField(singleFlight, "cacheEnabled", true);
+        ReflectionTestUtils.setField(singleFlight, "ttlMillis", 60_000L);
+        ReflectionTestUtils.setField(singleFlight, "maxCached", 10);
+    }
+
+    @Test
+    void cachesClosedPeriodResultUntilInvalidated() {
+        assertEquals(1, singleFlight.execute("k", true, loads::incrementAndGet));
+        assertEquals(1, singleFlight.execute("k", true, loads::incrementAndGet));
+
+        singleFlight.invalidate("k");
+        assertEquals(2, singleFlight.execute("k", true, loads::incrementAndGet));
+    }
+
+    @Test
+    void loadStartedBeforeInvalidateIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> staleLoad = CompletableFuture.supplyAsync(() ->
+                singleFlight.execute("k", true, () -> {
+                    loading.countDown();
+                    await(release);
+                    return loads.incrementAndGet();
+                }));
+
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        // 重建在查询进行中完成
+        singleFlight.invalidate("k");
+        release.countDown();
+        assertEquals(1, staleLoad.get(5, TimeUnit.SECONDS));
+
+        // 失效前开始的查询结果没有进入缓存，下一次调用重新查询
+        assertEquals(2, singleFlight.execute("k", true, loads::incrementAndGet));
+        assertEquals(2, singleFlight.execute("k", true, loads::incrementAndGet));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}